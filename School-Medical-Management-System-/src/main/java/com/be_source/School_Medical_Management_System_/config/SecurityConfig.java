@@ -3,7 +3,10 @@ package com.be_source.School_Medical_Management_System_.config;
 import com.be_source.School_Medical_Management_System_.security.JwtAuthenticationFilter;
 import com.be_source.School_Medical_Management_System_.security.JwtUtil;
 import com.be_source.School_Medical_Management_System_.security.UserDetailsServiceImpl;
+import com.be_source.School_Medical_Management_System_.service.TokenRevocationService;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.annotation.Order;
@@ -26,6 +29,11 @@ public class SecurityConfig {
     private final JwtUtil jwtUtil;
     private final UserDetailsServiceImpl userDetailsService;
     private final CorsConfigurationSource corsConfigurationSource;
+    private final TokenRevocationService tokenRevocationService;
+
+    // true: lấy quyền từ claim trong JWT, không load user từ DB mỗi request
+    @Value("${jwt.stateless:false}")
+    private boolean statelessJwt;
 
     // Public API
     private static final String[] PUBLIC_ENDPOINTS = {
@@ -37,7 +45,9 @@ public class SecurityConfig {
 
     // ADMIN role APIs
     private static final String[] ADMIN_ENDPOINTS = {
-            "/api/admin/users/**"
+            "/api/admin/users/**",
+            "/api/admin/notifications/**",
+            "/api/admin/catalog-cache/**"
     };
 
     // PRINCIPAL role APIs
@@ -95,6 +105,9 @@ public class SecurityConfig {
                 .cors(cors -> cors.configurationSource(corsConfigurationSource))
                 .authorizeHttpRequests(auth -> auth
 
+                        // Async dispatch (SSE) đã được phân quyền ở request gốc
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                         // --- Health Event ---
                         .requestMatchers(HttpMethod.GET, "/api/health-events/**").hasAnyRole("ADMIN", "PRINCIPAL", "PARENT", "NURSE")
                         .requestMatchers(HttpMethod.POST, "/api/health-events/**").hasRole("PRINCIPAL")
@@ -128,9 +141,9 @@ public class SecurityConfig {
                         // --- Common APIs ---
                         .requestMatchers(SHARED_ENDPOINTS_4ROLE).hasAnyRole("ADMIN", "PRINCIPAL", "NURSE", "PARENT")
                         .requestMatchers(HttpMethod.POST, "/api/notifications/to-nurses").hasRole("PRINCIPAL")
-                        .requestMatchers(HttpMethod.GET, "/api/notifications/my").hasAnyRole("PARENT", "NURSE", "PRINCIPAL", "ADMIN")
+                        .requestMatchers(HttpMethod.GET, "/api/notifications/my", "/api/notifications/my/cursor", "/api/notifications/my/unread-count", "/api/notifications/stream").hasAnyRole("PARENT", "NURSE", "PRINCIPAL", "ADMIN")
                         .requestMatchers(HttpMethod.PUT, "/api/notifications/{notificationId}/read-status","/api/notifications/mark-all-read").hasAnyRole("PARENT", "NURSE", "PRINCIPAL", "ADMIN")
-                        .requestMatchers(HttpMethod.GET, "/api/schedules/my-students").hasRole("PARENT")
+                        .requestMatchers(HttpMethod.GET, "/api/schedules/my-students", "/api/schedules/my-students/cursor").hasRole("PARENT")
                         .requestMatchers("/api/notifications/**").hasAnyRole("PRINCIPAL", "NURSE")
                         .requestMatchers("/api/schedules/**").hasRole("NURSE")
 
@@ -145,7 +158,7 @@ public class SecurityConfig {
 
     @Bean
     public JwtAuthenticationFilter jwtAuthenticationFilter() {
-        return new JwtAuthenticationFilter(jwtUtil, userDetailsService);
+        return new JwtAuthenticationFilter(jwtUtil, userDetailsService, tokenRevocationService, statelessJwt);
     }
 
     @Bean
@@ -0,0 +1,28 @@
+package com.be_source.School_Medical_Management_System_.controller;
+
+import com.be_source.School_Medical_Management_System_.response.CatalogCacheStatsResponse;
+import com.be_source.School_Medical_Management_System_.serviceImpl.MedicalCatalogCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+// Theo dõi cache danh mục thuốc (hit/miss/eviction) - chỉ ADMIN
+@RestController
+@RequestMapping("/api/admin/catalog-cache")
+@RequiredArgsConstructor
+public class CatalogCacheController {
+
+    private final MedicalCatalogCache catalogCache;
+
+    @GetMapping("/stats")
+    public ResponseEntity<CatalogCacheStatsResponse> getStats() {
+        return ResponseEntity.ok(catalogCache.stats());
+    }
+
+    // Xóa cache thủ công, ví dụ sau khi sửa dữ liệu trực tiếp trong DB
+    @DeleteMapping
+    public ResponseEntity<Void> evict() {
+        catalogCache.invalidate();
+        return ResponseEntity.noContent().build();
+    }
+}
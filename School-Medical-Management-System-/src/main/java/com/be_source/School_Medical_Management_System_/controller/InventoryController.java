@@ -2,12 +2,18 @@ package com.be_source.School_Medical_Management_System_.controller;
 
 import com.be_source.School_Medical_Management_System_.request.InventoryRequest;
 import com.be_source.School_Medical_Management_System_.response.InventoryResponse;
+import com.be_source.School_Medical_Management_System_.response.StockMovementResponse;
 import com.be_source.School_Medical_Management_System_.service.InventoryService;
+import com.be_source.School_Medical_Management_System_.service.StockLedgerService;
 import jakarta.annotation.security.RolesAllowed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -17,6 +23,9 @@ public class InventoryController {
     @Autowired
     private InventoryService inventoryService;
 
+    @Autowired
+    private StockLedgerService stockLedgerService;
+
     // View all inventory (cho mọi role: nurse, principal, parent)
     @GetMapping
     public ResponseEntity<List<InventoryResponse>> getAll() {
@@ -44,6 +53,25 @@ public class InventoryController {
         inventoryService.delete(id);
         return ResponseEntity.noContent().build();
     }
+    // Lịch sử nhập/xuất kho - chỉ cho NURSE và PRINCIPAL
+    @GetMapping("/{id}/movements")
+    @RolesAllowed({"ROLE_NURSE", "ROLE_PRINCIPAL"})
+    public ResponseEntity<Page<StockMovementResponse>> getMovements(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(stockLedgerService.getMovements(id, PageRequest.of(page, size)));
+    }
+
+    // Tồn kho tại một thời điểm (kiểm kê) - chỉ cho NURSE và PRINCIPAL
+    @GetMapping("/{id}/balance")
+    @RolesAllowed({"ROLE_NURSE", "ROLE_PRINCIPAL"})
+    public ResponseEntity<Integer> getBalanceAt(
+            @PathVariable Long id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        return ResponseEntity.ok(stockLedgerService.getBalanceAt(id, at));
+    }
+
     // Search - Cho mọi role
     @GetMapping("/search")
     public ResponseEntity<List<InventoryResponse>> searchInventory(@RequestParam String keyword) {
@@ -1,15 +1,19 @@
 package com.be_source.School_Medical_Management_System_.controller;
 
+import com.be_source.School_Medical_Management_System_.enums.ConfirmationStatus;
 import com.be_source.School_Medical_Management_System_.request.MedicationRequestRequest;
 import com.be_source.School_Medical_Management_System_.request.UnconfirmRequest;
+import com.be_source.School_Medical_Management_System_.response.CursorPageResponse;
 import com.be_source.School_Medical_Management_System_.response.MedicationRequestResponse;
 import com.be_source.School_Medical_Management_System_.service.MedicationRequestService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -73,6 +77,20 @@ public class MedicationRequestController {
         return ResponseEntity.ok(medicationRequestService.getAllRequests());
     }
 
+    // Hàng đợi có lọc + phân trang keyset cho dashboard y tá
+    @GetMapping("/nurse/queue")
+    public ResponseEntity<CursorPageResponse<MedicationRequestResponse>> getNurseQueue(
+            @RequestParam(required = false) ConfirmationStatus status,
+            @RequestParam(required = false) String className,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            @RequestParam(required = false) Boolean sufficientStock,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(medicationRequestService.getNurseQueue(
+                status, className, fromDate, toDate, sufficientStock, cursor, size));
+    }
+
     @PutMapping("/nurse/confirm/{id}")
     public ResponseEntity<?> confirmRequest(@PathVariable Long id) {
         medicationRequestService.confirmRequest(id);
@@ -0,0 +1,40 @@
+package com.be_source.School_Medical_Management_System_.controller;
+
+import com.be_source.School_Medical_Management_System_.enums.MedicationSlot;
+import com.be_source.School_Medical_Management_System_.response.MedicationRoundItemResponse;
+import com.be_source.School_Medical_Management_System_.service.MedicationRoundService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Kế hoạch phát thuốc theo ngày cho y tá
+@RestController
+@RequestMapping("/api/nurse/medication-rounds")
+@RequiredArgsConstructor
+public class MedicationRoundController {
+
+    private final MedicationRoundService roundService;
+
+    // Mặc định hôm nay; lọc theo cữ (MORNING/NOON/EVENING) và lớp nếu có
+    @GetMapping
+    @PreAuthorize("hasRole('NURSE')")
+    public ResponseEntity<List<MedicationRoundItemResponse>> getRound(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(required = false) MedicationSlot slot,
+            @RequestParam(required = false) String className) {
+        return ResponseEntity.ok(roundService.getRound(date != null ? date : LocalDate.now(), slot, className));
+    }
+
+    // Sinh lại (bổ sung) kế hoạch cho một ngày; các dòng đã có được giữ nguyên
+    @PostMapping("/materialize")
+    @PreAuthorize("hasRole('NURSE')")
+    public ResponseEntity<Integer> materialize(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(roundService.materialize(date != null ? date : LocalDate.now()));
+    }
+}
@@ -1,14 +1,17 @@
 package com.be_source.School_Medical_Management_System_.controller;
 
 import com.be_source.School_Medical_Management_System_.request.MedicationScheduleRequest;
+import com.be_source.School_Medical_Management_System_.response.CursorPageResponse;
 import com.be_source.School_Medical_Management_System_.response.MedicationScheduleResponse;
 import com.be_source.School_Medical_Management_System_.service.MedicationScheduleService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -32,6 +35,17 @@ public class MedicationScheduleController {
         return ResponseEntity.ok(scheduleService.getForCurrentParentStudents());
     }
 
+    // Phân trang keyset, lọc theo khoảng ngày uống thuốc (bao gồm hai đầu)
+    @GetMapping("/my-students/cursor")
+    @PreAuthorize("hasRole('PARENT')")
+    public ResponseEntity<CursorPageResponse<MedicationScheduleResponse>> getSchedulesForCurrentParentPage(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(scheduleService.getForCurrentParentStudents(fromDate, toDate, cursor, size));
+    }
+
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('NURSE')")
     public ResponseEntity<MedicationScheduleResponse> getScheduleById(@PathVariable Long id) {
@@ -1,6 +1,7 @@
 package com.be_source.School_Medical_Management_System_.controller;
 
 import com.be_source.School_Medical_Management_System_.request.NotificationRequest;
+import com.be_source.School_Medical_Management_System_.response.CursorPageResponse;
 import com.be_source.School_Medical_Management_System_.response.NotificationResponse;
 import com.be_source.School_Medical_Management_System_.service.NotificationService;
 import lombok.RequiredArgsConstructor;
@@ -8,8 +9,10 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("/api/notifications")
@@ -20,9 +23,8 @@ public class NotificationController {
 
     // Tạo Noti cho full Parent
     @PostMapping
-    public ResponseEntity<Void> create(@RequestBody NotificationRequest request) {
-        notificationService.createNotification(request);
-        return ResponseEntity.ok().build();
+    public ResponseEntity<Long> create(@RequestBody NotificationRequest request) {
+        return ResponseEntity.ok(notificationService.createNotification(request));
     }
 
     @GetMapping("/my")
@@ -39,6 +41,33 @@ public class NotificationController {
         return ResponseEntity.ok(notificationService.getNotificationsForCurrentUser(pageable));
     }
 
+    // Phân trang keyset: không tụt hiệu năng ở trang sâu, chỉ đếm tổng khi includeTotal=true
+    @GetMapping("/my/cursor")
+    public ResponseEntity<CursorPageResponse<NotificationResponse>> getMyNotificationsByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "5") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+            @RequestParam(defaultValue = "false") boolean includeArchived
+    ) {
+        if (includeArchived) {
+            return ResponseEntity.ok(notificationService.getNotificationHistoryForCurrentUser(cursor, size));
+        }
+        return ResponseEntity.ok(notificationService.getNotificationsForCurrentUser(cursor, size, includeTotal));
+    }
+
+    // Số noti chưa đọc, lấy từ bộ đếm trong bộ nhớ
+    @GetMapping("/my/unread-count")
+    public ResponseEntity<Long> getMyUnreadCount() {
+        return ResponseEntity.ok(notificationService.getUnreadCountForCurrentUser());
+    }
+
+    // Stream noti mới qua Server-Sent Events; reconnect gửi Last-Event-ID để nhận lại noti bị lỡ
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamMyNotifications(
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return notificationService.subscribeForCurrentUser(lastEventId);
+    }
+
     // Tạo Noti cho full Nurse
     @PostMapping("/to-nurses")
     public ResponseEntity<String> createNotificationForNurses(@RequestBody NotificationRequest request) {
@@ -84,4 +113,13 @@ public class NotificationController {
         return ResponseEntity.ok(notificationService.getAllNotifications(pageable));
     }
 
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPageResponse<NotificationResponse>> getAllNotificationsByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "5") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal
+    ) {
+        return ResponseEntity.ok(notificationService.getAllNotifications(cursor, size, includeTotal));
+    }
+
 }
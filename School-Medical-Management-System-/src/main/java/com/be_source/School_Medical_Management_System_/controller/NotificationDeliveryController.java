@@ -0,0 +1,37 @@
+package com.be_source.School_Medical_Management_System_.controller;
+
+import com.be_source.School_Medical_Management_System_.response.EmailDeliveryResponse;
+import com.be_source.School_Medical_Management_System_.service.NotificationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+// Quản lý email gửi lỗi vĩnh viễn (dead letters) - chỉ ADMIN
+@RestController
+@RequestMapping("/api/admin/notifications")
+@RequiredArgsConstructor
+public class NotificationDeliveryController {
+
+    private final NotificationService notificationService;
+
+    @GetMapping("/dead-letters")
+    public ResponseEntity<Page<EmailDeliveryResponse>> getDeadLetters(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(notificationService.getDeadLetters(PageRequest.of(page, size)));
+    }
+
+    @PutMapping("/dead-letters/{notificationId}/requeue")
+    public ResponseEntity<String> requeue(@PathVariable Long notificationId) {
+        notificationService.requeueDeadLetter(notificationId);
+        return ResponseEntity.ok("Notification email re-queued.");
+    }
+
+    @PutMapping("/dead-letters/requeue-all")
+    public ResponseEntity<String> requeueAll() {
+        int count = notificationService.requeueAllDeadLetters();
+        return ResponseEntity.ok(count + " notification emails re-queued.");
+    }
+}
@@ -42,6 +42,15 @@ public class StudentController {
         return ResponseEntity.ok(studentService.searchStudentsByCode(keyword));
     }
 
+    // Tìm theo họ tên, lớp (không phân biệt dấu) hoặc mã học sinh; kết quả xếp hạng và phân trang
+    @GetMapping("/search/ranked")
+    public ResponseEntity<Page<StudentResponse>> searchStudents(
+            @RequestParam String keyword,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(studentService.searchStudents(keyword, PageRequest.of(page, size)));
+    }
+
     // Cái này chức năng View Student-Info của Hoàng
     @GetMapping("/code/{studentCode}")
     public ResponseEntity<StudentResponse> getStudentByCode(@PathVariable String studentCode) {
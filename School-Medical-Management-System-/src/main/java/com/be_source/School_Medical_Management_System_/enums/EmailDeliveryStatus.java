@@ -0,0 +1,7 @@
+package com.be_source.School_Medical_Management_System_.enums;
+
+public enum EmailDeliveryStatus {
+    PENDING,
+    SENT,
+    DEAD
+}
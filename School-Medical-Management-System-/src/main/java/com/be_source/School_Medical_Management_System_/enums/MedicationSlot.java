@@ -0,0 +1,8 @@
+package com.be_source.School_Medical_Management_System_.enums;
+
+// Cữ uống thuốc trong ngày, ứng với morning/noon/eveningQuantity của MedicationRequest
+public enum MedicationSlot {
+    MORNING,
+    NOON,
+    EVENING
+}
@@ -0,0 +1,8 @@
+package com.be_source.School_Medical_Management_System_.enums;
+
+public enum StockMovementType {
+    RECEIPT,
+    DISPENSE,
+    ADJUSTMENT,
+    REVERSAL
+}
@@ -0,0 +1,44 @@
+package com.be_source.School_Medical_Management_System_.mapper;
+
+import com.be_source.School_Medical_Management_System_.model.Notification;
+import com.be_source.School_Medical_Management_System_.repository.NotificationHistoryView;
+import com.be_source.School_Medical_Management_System_.response.NotificationResponse;
+
+public class NotificationMapper {
+
+    public static NotificationResponse toResponse(Notification n) {
+        if (n == null) return null;
+
+        NotificationResponse dto = new NotificationResponse();
+        dto.setNotificationId(n.getNotificationId());
+        dto.setTitle(n.resolveTitle());
+        dto.setContent(n.resolveContent());
+        dto.setCreatedById(n.getCreatedBy() != null ? n.getCreatedBy().getUserId() : null);
+        dto.setUserId(n.getUser() != null ? n.getUser().getUserId() : null);
+        dto.setCreatedAt(n.getCreatedAt());
+        dto.setReadStatus(n.getReadStatus());
+        dto.setEmailSent(n.getEmailSent());
+        dto.setNotificationType(n.getNotificationType());
+        dto.setBroadcastId(n.getBroadcast() != null ? n.getBroadcast().getBroadcastId() : null);
+        dto.setArchived(false);
+        return dto;
+    }
+
+    public static NotificationResponse toResponse(NotificationHistoryView v) {
+        if (v == null) return null;
+
+        NotificationResponse dto = new NotificationResponse();
+        dto.setNotificationId(v.getNotificationId());
+        dto.setTitle(v.getTitle());
+        dto.setContent(v.getContent());
+        dto.setCreatedById(v.getCreatedById());
+        dto.setUserId(v.getUserId());
+        dto.setCreatedAt(v.getCreatedAt());
+        dto.setReadStatus(v.getReadStatus());
+        dto.setEmailSent(v.getEmailSent());
+        dto.setNotificationType(v.getNotificationType());
+        dto.setBroadcastId(v.getBroadcastId());
+        dto.setArchived(v.getArchived());
+        return dto;
+    }
+}
@@ -0,0 +1,60 @@
+package com.be_source.School_Medical_Management_System_.migration;
+
+import com.be_source.School_Medical_Management_System_.util.NameNormalizer;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+
+/**
+ * Điền khóa tên / khóa tìm kiếm chuẩn hóa cho dữ liệu có từ trước khi thêm cột (dòng mới được tính qua @PrePersist/@PreUpdate).
+ * Làm trong Java vì PostgreSQL không có sẵn hàm bỏ dấu nếu chưa cài extension unaccent.
+ * Chạy một lần như mọi migration, trong transaction của Flyway; duyệt theo id nên dòng có khóa vẫn null không làm dừng sớm.
+ */
+@Component
+public class V12__BackfillNameKeys extends BaseJavaMigration {
+
+    private static final int BATCH_SIZE = 500;
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        Connection connection = context.getConnection();
+        backfill(connection, "medical_items", "item_id", "item_name", "name_key");
+        backfill(connection, "medication_requests", "request_id", "medication_name", "medication_name_key");
+        backfill(connection, "students", "student_id",
+                "coalesce(full_name, '') || ' ' || coalesce(class_name, '')", "search_key");
+    }
+
+    private void backfill(Connection connection, String table, String idColumn, String source, String keyColumn)
+            throws SQLException {
+        String select = "SELECT " + idColumn + ", " + source + " FROM " + table
+                + " WHERE " + keyColumn + " IS NULL AND " + idColumn + " > ? ORDER BY " + idColumn + " LIMIT " + BATCH_SIZE;
+        String update = "UPDATE " + table + " SET " + keyColumn + " = ? WHERE " + idColumn + " = ?";
+        try (PreparedStatement query = connection.prepareStatement(select);
+             PreparedStatement write = connection.prepareStatement(update)) {
+            long lastId = 0;
+            int fetched;
+            do {
+                fetched = 0;
+                query.setLong(1, lastId);
+                try (ResultSet rs = query.executeQuery()) {
+                    while (rs.next()) {
+                        lastId = rs.getLong(1);
+                        fetched++;
+                        String key = NameNormalizer.normalize(rs.getString(2));
+                        if (key == null) continue;
+                        write.setString(1, key);
+                        write.setLong(2, lastId);
+                        write.addBatch();
+                    }
+                }
+                write.executeBatch();
+            } while (fetched == BATCH_SIZE);
+        }
+    }
+}
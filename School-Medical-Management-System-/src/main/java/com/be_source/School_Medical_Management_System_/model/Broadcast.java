@@ -0,0 +1,44 @@
+package com.be_source.School_Medical_Management_System_.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Nội dung thông báo gửi hàng loạt, lưu một lần; mỗi người nhận chỉ có một dòng Notification nhẹ trỏ tới đây
+@Entity
+@Table(name = "broadcasts")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Broadcast {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "broadcast_id")
+    private Long broadcastId;
+
+    @Column(nullable = false, length = 255)
+    private String title;
+
+    @Column(columnDefinition = "text")
+    private String content;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "created_by")
+    private User createdBy;
+
+    @Column(name = "notification_type", length = 100)
+    private String notificationType;
+
+    @Column(name = "target_role", length = 50)
+    private String targetRole;
+
+    @Column(name = "recipient_count")
+    private Integer recipientCount;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
@@ -0,0 +1,34 @@
+package com.be_source.School_Medical_Management_System_.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Tồn kho đã chốt của một inventory tại movement lastMovementId (do StockLedgerCompactionJob ghi)
+@Entity
+@Table(name = "inventory_balance_snapshots")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryBalanceSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "snapshot_id")
+    private Long snapshotId;
+
+    @Column(name = "inventory_id", nullable = false)
+    private Long inventoryId;
+
+    @Column(name = "last_movement_id", nullable = false)
+    private Long lastMovementId;
+
+    @Column(nullable = false)
+    private Integer balance;
+
+    @Column(name = "as_of", nullable = false)
+    private LocalDateTime asOf;
+}
@@ -1,5 +1,6 @@
 package com.be_source.School_Medical_Management_System_.model;
 
+import com.be_source.School_Medical_Management_System_.util.NameNormalizer;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -20,6 +21,10 @@ public class MedicalItem {
 
     private String itemName;
 
+    // Khóa so khớp với MedicationRequest.medicationNameKey (xem NameNormalizer)
+    @Column(name = "name_key")
+    private String nameKey;
+
     private String category; // e.g., "Medicine", "Bandage", "Disinfectant"
 
     @Column(columnDefinition = "TEXT")
@@ -35,4 +40,10 @@ public class MedicalItem {
 
     @Builder.Default
     private LocalDateTime createdAt = LocalDateTime.now();
+
+    @PrePersist
+    @PreUpdate
+    public void computeNameKey() {
+        nameKey = NameNormalizer.normalize(itemName);
+    }
 }
@@ -1,6 +1,7 @@
 package com.be_source.School_Medical_Management_System_.model;
 
 import com.be_source.School_Medical_Management_System_.enums.ConfirmationStatus;
+import com.be_source.School_Medical_Management_System_.util.NameNormalizer;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -24,6 +25,10 @@ public class MedicationRequest {
     private Students student;
 
     private String medicationName;
+
+    // Khóa so khớp với MedicalItem.nameKey (xem NameNormalizer)
+    @Column(name = "medication_name_key")
+    private String medicationNameKey;
     private String dosage;
     private String frequency;
     private String prescriptionFile;
@@ -63,4 +68,10 @@ public class MedicationRequest {
     @Column(name = "is_sufficient_stock")
     private Boolean isSufficientStock;
 
+    @PrePersist
+    @PreUpdate
+    public void computeMedicationNameKey() {
+        medicationNameKey = NameNormalizer.normalize(medicationName);
+    }
+
 }
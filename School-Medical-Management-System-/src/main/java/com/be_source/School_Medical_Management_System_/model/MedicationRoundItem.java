@@ -0,0 +1,71 @@
+package com.be_source.School_Medical_Management_System_.model;
+
+import com.be_source.School_Medical_Management_System_.enums.MedicationSlot;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Một dòng trong kế hoạch phát thuốc của một ngày: (ngày, cữ, đơn thuốc). Sinh sẵn từ các đơn đã xác nhận
+ * và lưu kèm tên học sinh/lớp/thuốc để màn hình đi phát thuốc chỉ cần đọc một bảng.
+ * Lưu id thô (không FK) như stock_movements, để kế hoạch các ngày cũ còn nguyên khi đơn bị xóa.
+ * Unique index (round_date, request_id, slot) mà ON CONFLICT của job dựa vào nằm ở migration V9.
+ */
+@Entity
+@Table(name = "medication_round_items")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MedicationRoundItem {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "round_item_id")
+    private Long roundItemId;
+
+    @Column(name = "round_date", nullable = false)
+    private LocalDate roundDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 10, nullable = false)
+    private MedicationSlot slot;
+
+    @Column(name = "request_id", nullable = false)
+    private Long requestId;
+
+    @Column(name = "student_id")
+    private Long studentId;
+
+    @Column(name = "student_name")
+    private String studentName;
+
+    @Column(name = "class_name")
+    private String className;
+
+    @Column(name = "medication_name")
+    private String medicationName;
+
+    @Column(name = "inventory_id")
+    private Long inventoryId;
+
+    // Nguyên văn morning/noon/eveningQuantity của đơn (phụ huynh nhập tự do, ví dụ "1 viên")
+    @Column(name = "planned_quantity")
+    private String plannedQuantity;
+
+    // Cộng dồn từ các MedicationSchedule ghi nhận trong cữ này
+    @Column(name = "dispensed_quantity", nullable = false)
+    private Integer dispensedQuantity = 0;
+
+    @Column(name = "last_schedule_id")
+    private Long lastScheduleId;
+
+    @Column(name = "administered_at")
+    private LocalDateTime administeredAt;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
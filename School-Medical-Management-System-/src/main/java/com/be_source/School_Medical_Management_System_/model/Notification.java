@@ -1,5 +1,6 @@
 package com.be_source.School_Medical_Management_System_.model;
 
+import com.be_source.School_Medical_Management_System_.enums.EmailDeliveryStatus;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -21,7 +22,8 @@ public class Notification {
     @Column(name = "notification_id")
     private Long notificationId;
 
-    @Column(nullable = false, length = 255)
+    // Null với noti broadcast: title/content nằm ở Broadcast
+    @Column(length = 255)
     private String title;
 
     @Column(columnDefinition = "text")
@@ -47,4 +49,34 @@ public class Notification {
     @Column(name = "email_sent")
     private Boolean emailSent = false;
 
+    @Enumerated(EnumType.STRING)
+    @Column(name = "email_status", length = 20)
+    private EmailDeliveryStatus emailStatus = EmailDeliveryStatus.PENDING;
+
+    @Column(name = "email_attempts")
+    private Integer emailAttempts = 0;
+
+    // Thời điểm được gửi (lại); khi đang claim thì đây là hạn của lease
+    @Column(name = "next_attempt_at")
+    private LocalDateTime nextAttemptAt = LocalDateTime.now();
+
+    @Column(name = "last_email_error", length = 500)
+    private String lastEmailError;
+
+    // Node đang giữ noti để gửi email (outbox claim)
+    @Column(name = "claimed_by", length = 64)
+    private String claimedBy;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "broadcast_id")
+    private Broadcast broadcast;
+
+    public String resolveTitle() {
+        return title != null || broadcast == null ? title : broadcast.getTitle();
+    }
+
+    public String resolveContent() {
+        return content != null || broadcast == null ? content : broadcast.getContent();
+    }
+
 }
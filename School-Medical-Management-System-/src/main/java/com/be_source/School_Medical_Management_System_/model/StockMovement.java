@@ -0,0 +1,49 @@
+package com.be_source.School_Medical_Management_System_.model;
+
+import com.be_source.School_Medical_Management_System_.enums.StockMovementType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Sổ cái nhập/xuất kho, chỉ thêm không sửa. Lưu id thô (không FK) để lịch sử còn nguyên
+ * khi inventory, schedule hoặc user bị xóa.
+ */
+@Entity
+@Table(name = "stock_movements")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockMovement {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "movement_id")
+    private Long movementId;
+
+    @Column(name = "inventory_id", nullable = false)
+    private Long inventoryId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "movement_type", length = 20, nullable = false)
+    private StockMovementType movementType;
+
+    // Có dấu: dương = nhập/hoàn lại, âm = xuất
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @Column(name = "schedule_id")
+    private Long scheduleId;
+
+    @Column(name = "created_by")
+    private Long createdBy;
+
+    @Builder.Default
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
@@ -1,6 +1,7 @@
 package com.be_source.School_Medical_Management_System_.model;
 
 import com.be_source.School_Medical_Management_System_.enums.ConfirmationStatus;
+import com.be_source.School_Medical_Management_System_.util.NameNormalizer;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
@@ -24,6 +25,10 @@ public class Students {
 
     private String fullName;
 
+    // Họ tên + lớp đã bỏ dấu/chữ thường cho tìm kiếm trigram (idx_students_search_trgm)
+    @Column(name = "search_key", columnDefinition = "text")
+    private String searchKey;
+
     private LocalDate dateOfBirth;
 
     private String className;
@@ -45,7 +50,8 @@ public class Students {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
-    @ManyToOne
+    // LAZY: danh sách học sinh không cần thông tin phụ huynh, chỉ cần id (lấy từ proxy không tốn query)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "parent_id")
     private User parent;
 
@@ -56,4 +62,11 @@ public class Students {
     @Enumerated(EnumType.STRING)
     @Column(name = "confirmation_status", nullable = false)
     private ConfirmationStatus confirmationStatus = ConfirmationStatus.pending;
+
+    @PrePersist
+    @PreUpdate
+    public void computeSearchKey() {
+        searchKey = NameNormalizer.normalize(
+                (fullName != null ? fullName : "") + " " + (className != null ? className : ""));
+    }
 }
@@ -0,0 +1,9 @@
+package com.be_source.School_Medical_Management_System_.repository;
+
+import com.be_source.School_Medical_Management_System_.model.Broadcast;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface BroadcastRepository extends JpaRepository<Broadcast, Long> {
+}
@@ -3,11 +3,18 @@ package com.be_source.School_Medical_Management_System_.repository;
 import com.be_source.School_Medical_Management_System_.model.Health_Info;
 import com.be_source.School_Medical_Management_System_.model.Students;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface HealthInfoRepository extends JpaRepository<Health_Info, Long> {
     List<Health_Info> findByStudentStudentId(Long studentId);
+
+    // Nạp health info cho cả một trang học sinh bằng một query (thay vì mỗi học sinh một query)
+    @Query("SELECT h FROM Health_Info h JOIN FETCH h.student s WHERE s.studentId IN :studentIds")
+    List<Health_Info> findByStudentIds(@Param("studentIds") Collection<Long> studentIds);
 }
@@ -0,0 +1,32 @@
+package com.be_source.School_Medical_Management_System_.repository;
+
+import com.be_source.School_Medical_Management_System_.model.InventoryBalanceSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface InventoryBalanceSnapshotRepository extends JpaRepository<InventoryBalanceSnapshot, Long> {
+
+    // Snapshot gần nhất sau thời điểm cần tra: tồn tại `at` = balance - biến động trong (at, snapshot]
+    Optional<InventoryBalanceSnapshot> findFirstByInventoryIdAndAsOfGreaterThanEqualOrderByAsOfAsc(Long inventoryId, LocalDateTime at);
+
+    // Chốt tồn cho mọi inventory có biến động kể từ snapshot trước: tồn hiện tại trừ các movement sau :maxId.
+    // Một câu lệnh nên total_quantity và ledger được đọc trên cùng một snapshot của DB.
+    @Modifying
+    @Query(value = "INSERT INTO inventory_balance_snapshots (inventory_id, last_movement_id, balance, as_of) " +
+            "SELECT i.inventory_id, :maxId, " +
+            "i.total_quantity - COALESCE((SELECT SUM(m.quantity) FROM stock_movements m " +
+            "WHERE m.inventory_id = i.inventory_id AND m.movement_id > :maxId), 0), " +
+            "(SELECT created_at FROM stock_movements WHERE movement_id = :maxId) " +
+            "FROM inventory i " +
+            "WHERE EXISTS (SELECT 1 FROM stock_movements m WHERE m.inventory_id = i.inventory_id " +
+            "AND m.movement_id <= :maxId AND m.movement_id > COALESCE((SELECT MAX(s.last_movement_id) " +
+            "FROM inventory_balance_snapshots s WHERE s.inventory_id = i.inventory_id), 0))", nativeQuery = true)
+    int compactUpTo(@Param("maxId") Long maxId);
+}
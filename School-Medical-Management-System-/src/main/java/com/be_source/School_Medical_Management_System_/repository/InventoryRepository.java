@@ -3,16 +3,42 @@ package com.be_source.School_Medical_Management_System_.repository;
 import com.be_source.School_Medical_Management_System_.model.Inventory;
 import com.be_source.School_Medical_Management_System_.model.MedicalItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface InventoryRepository extends JpaRepository<Inventory, Long> {
     Optional<Inventory> findByMedicalItem(MedicalItem item);
-    @Query("SELECT i FROM Inventory i WHERE LOWER(i.medicalItem.itemName) LIKE LOWER(CONCAT('%', :keyword, '%'))")
-    List<Inventory> searchByItemName(String keyword);
-    Optional<Inventory> findByMedicalItem_ItemNameIgnoreCase(String itemName);
+
+    @Query("SELECT i FROM Inventory i JOIN FETCH i.medicalItem")
+    List<Inventory> findAllWithItem();
+
+    @Query("SELECT i.inventoryId, i.totalQuantity, i.updatedAt FROM Inventory i")
+    List<Object[]> findAllStockLevels();
+
+    // Đọc thẳng từ DB (không lấy bản cache trong persistence context) sau các UPDATE nguyên tử
+    @Query("SELECT i.totalQuantity FROM Inventory i WHERE i.inventoryId = :inventoryId")
+    Integer findTotalQuantity(@Param("inventoryId") Long inventoryId);
+
+    // Khóa trước nhiều dòng inventory theo inventory_id tăng dần: mọi transaction cùng khóa theo một thứ tự nên không deadlock
+    @Query(value = "SELECT inventory_id FROM inventory WHERE inventory_id IN (:ids) ORDER BY inventory_id FOR UPDATE",
+            nativeQuery = true)
+    List<Long> lockAllInOrder(@Param("ids") Collection<Long> ids);
+
+    // Trừ kho nguyên tử: trả về 0 nếu không đủ hàng (không bao giờ âm kho, không mất cập nhật khi cấp phát đồng thời)
+    @Modifying
+    @Query(value = "UPDATE inventory SET total_quantity = total_quantity - :qty, updated_at = LOCALTIMESTAMP " +
+            "WHERE inventory_id = :inventoryId AND total_quantity >= :qty", nativeQuery = true)
+    int decrementStock(@Param("inventoryId") Long inventoryId, @Param("qty") int qty);
+
+    @Modifying
+    @Query(value = "UPDATE inventory SET total_quantity = total_quantity + :qty, updated_at = LOCALTIMESTAMP " +
+            "WHERE inventory_id = :inventoryId", nativeQuery = true)
+    int incrementStock(@Param("inventoryId") Long inventoryId, @Param("qty") int qty);
 }
\ No newline at end of file
@@ -5,9 +5,15 @@ import com.be_source.School_Medical_Management_System_.model.Inventory;
 import com.be_source.School_Medical_Management_System_.model.MedicationRequest;
 import com.be_source.School_Medical_Management_System_.model.Students;
 import com.be_source.School_Medical_Management_System_.model.User;
+import com.be_source.School_Medical_Management_System_.response.MedicationRequestResponse;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,10 +24,65 @@ public interface MedicationRequestRepository extends JpaRepository<MedicationReq
     List<MedicationRequest> findByStudentOrderByCreatedAtDesc(Students student);
     List<MedicationRequest> findByConfirmationStatus(ConfirmationStatus status);
     List<MedicationRequest> findByInventory(Inventory inventory);
-    List<MedicationRequest> findByMedicationNameIgnoreCaseAndInventoryIsNull(String medicationName);
-    List<MedicationRequest> findByInventoryIsNull();
     List<MedicationRequest> findByRequestedByOrderByCreatedAtDesc(User requestedBy);
-    List<MedicationRequest> findByConfirmationStatusOrderByCreatedAtDesc(ConfirmationStatus status);
 
+    // Cộng/trừ số lượng còn lại của đơn theo delta (âm = cấp phát, dương = hoàn lại) và tính lại trạng thái,
+    // is_sufficient_stock trong cùng câu lệnh. Trả về 0 nếu số còn lại sẽ âm. Gọi sau khi đã cập nhật kho.
+    @Modifying
+    @Query(value = "UPDATE medication_requests r SET total_quantity = r.total_quantity + :delta, " +
+            "confirmation_status = CASE WHEN r.total_quantity + :delta = 0 THEN 'done' ELSE 'in_progress' END, " +
+            "is_sufficient_stock = COALESCE((SELECT i.total_quantity FROM inventory i " +
+            "WHERE i.inventory_id = r.inventory_id) >= r.total_quantity + :delta, false) " +
+            "WHERE r.request_id = :requestId AND r.total_quantity + :delta >= 0", nativeQuery = true)
+    int adjustRemainingQuantity(@Param("requestId") Long requestId, @Param("delta") int delta);
+
+    // Gán inventory cho các đơn chưa liên kết có cùng khóa tên (partial index idx_medication_requests_orphan_name_key)
+    @Modifying
+    @Query(value = "UPDATE medication_requests r SET inventory_id = i.inventory_id, " +
+            "is_sufficient_stock = i.total_quantity >= COALESCE(r.total_quantity, 0) " +
+            "FROM inventory i WHERE i.inventory_id = :inventoryId " +
+            "AND r.inventory_id IS NULL AND r.medication_name_key = :nameKey", nativeQuery = true)
+    int linkOrphansByNameKey(@Param("inventoryId") Long inventoryId, @Param("nameKey") String nameKey);
+
+    // Gỡ inventory khỏi các đơn không còn khớp tên sau khi đổi tên thuốc
+    @Modifying
+    @Query(value = "UPDATE medication_requests SET inventory_id = NULL, is_sufficient_stock = false " +
+            "WHERE inventory_id = :inventoryId AND medication_name_key IS DISTINCT FROM :nameKey", nativeQuery = true)
+    int unlinkMismatchedNameKey(@Param("inventoryId") Long inventoryId, @Param("nameKey") String nameKey);
+
+    // Tính lại cờ đủ/thiếu thuốc cho các đơn còn mở của một inventory trong một câu lệnh; đơn đã xong/bị từ chối
+    // giữ nguyên, chỉ ghi dòng có giá trị thay đổi (dùng idx_medication_requests_open_inventory)
+    @Modifying
+    @Query(value = "UPDATE medication_requests r SET is_sufficient_stock = COALESCE(r.total_quantity <= i.total_quantity, false) " +
+            "FROM inventory i WHERE i.inventory_id = :inventoryId AND r.inventory_id = i.inventory_id " +
+            "AND r.confirmation_status IN ('pending', 'confirmed', 'in_progress') " +
+            "AND r.is_sufficient_stock IS DISTINCT FROM COALESCE(r.total_quantity <= i.total_quantity, false)",
+            nativeQuery = true)
+    int refreshSufficientStock(@Param("inventoryId") Long inventoryId);
+
+    // Hàng đợi của y tá: chỉ lấy đúng các cột của response trong một câu join, seek theo (createdAt, requestId).
+    // Filter null = bỏ qua; Pageable chỉ để giới hạn số dòng (trả List nên không COUNT).
+    // Tham số ngày được cast vì PostgreSQL không suy ra được kiểu của "? IS NULL" khi JDBC gửi timestamp null.
+    @Query("SELECT new com.be_source.School_Medical_Management_System_.response.MedicationRequestResponse(" +
+            "r.requestId, s.studentId, s.studentCode, s.fullName, s.className, p.fullName, p.email, " +
+            "r.medicationName, r.dosage, r.frequency, r.totalQuantity, r.morningQuantity, r.noonQuantity, " +
+            "r.eveningQuantity, r.prescriptionFile, r.confirmationStatus, r.unconfirmReason, r.createdAt, " +
+            "r.confirmedAt, r.isSufficientStock) " +
+            "FROM MedicationRequest r JOIN r.student s JOIN r.requestedBy p " +
+            "WHERE (:status IS NULL OR r.confirmationStatus = :status) " +
+            "AND (:className IS NULL OR s.className = :className) " +
+            "AND (CAST(:fromDate AS LocalDateTime) IS NULL OR r.createdAt >= :fromDate) " +
+            "AND (CAST(:toDate AS LocalDateTime) IS NULL OR r.createdAt < :toDate) " +
+            "AND (:sufficientStock IS NULL OR r.isSufficientStock = :sufficientStock) " +
+            "AND (r.createdAt, r.requestId) < (:cursorAt, :cursorId) " +
+            "ORDER BY r.createdAt DESC, r.requestId DESC")
+    List<MedicationRequestResponse> findNurseQueue(@Param("status") ConfirmationStatus status,
+                                                   @Param("className") String className,
+                                                   @Param("fromDate") LocalDateTime fromDate,
+                                                   @Param("toDate") LocalDateTime toDate,
+                                                   @Param("sufficientStock") Boolean sufficientStock,
+                                                   @Param("cursorAt") LocalDateTime cursorAt,
+                                                   @Param("cursorId") Long cursorId,
+                                                   Pageable limit);
 
 }
\ No newline at end of file
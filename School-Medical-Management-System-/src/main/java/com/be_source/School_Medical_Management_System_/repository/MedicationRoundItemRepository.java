@@ -0,0 +1,63 @@
+package com.be_source.School_Medical_Management_System_.repository;
+
+import com.be_source.School_Medical_Management_System_.enums.MedicationSlot;
+import com.be_source.School_Medical_Management_System_.model.MedicationRoundItem;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface MedicationRoundItemRepository extends JpaRepository<MedicationRoundItem, Long> {
+
+    boolean existsByRoundDate(LocalDate roundDate);
+
+    // Màn hình đi phát thuốc: một lần đọc theo idx_medication_round_items_day. Filter null = bỏ qua;
+    // slot lưu dạng chuỗi nên thứ tự sáng/trưa/tối được sắp lại ở service.
+    @Query("SELECT i FROM MedicationRoundItem i WHERE i.roundDate = :roundDate " +
+            "AND (:slot IS NULL OR i.slot = :slot) " +
+            "AND (:className IS NULL OR i.className = :className) " +
+            "ORDER BY i.className, i.studentName, i.roundItemId")
+    List<MedicationRoundItem> findRound(@Param("roundDate") LocalDate roundDate,
+                                        @Param("slot") MedicationSlot slot,
+                                        @Param("className") String className);
+
+    // Sinh kế hoạch trong một câu: mỗi đơn confirmed/in_progress tách thành các cữ có số lượng.
+    // Idempotent nhờ unique (round_date, request_id, slot): chạy lại không đụng các dòng đã có / đã phát.
+    // requestId = 0: toàn bộ đơn; khác 0: chỉ đơn đó (khi y tá vừa xác nhận đơn trong ngày).
+    @Modifying
+    @Query(value = "INSERT INTO medication_round_items (round_date, slot, request_id, student_id, student_name, " +
+            "class_name, medication_name, inventory_id, planned_quantity, dispensed_quantity, created_at) " +
+            "SELECT :roundDate, v.slot, r.request_id, s.student_id, s.full_name, s.class_name, r.medication_name, " +
+            "r.inventory_id, TRIM(v.qty), 0, LOCALTIMESTAMP " +
+            "FROM medication_requests r JOIN students s ON s.student_id = r.student_id " +
+            "CROSS JOIN LATERAL (VALUES ('MORNING', r.morning_quantity), ('NOON', r.noon_quantity), " +
+            "('EVENING', r.evening_quantity)) AS v(slot, qty) " +
+            "WHERE r.confirmation_status IN ('confirmed', 'in_progress') " +
+            "AND (:requestId = 0 OR r.request_id = :requestId) " +
+            "AND NULLIF(TRIM(v.qty), '') IS NOT NULL AND TRIM(v.qty) <> '0' " +
+            "ON CONFLICT (round_date, request_id, slot) DO NOTHING", nativeQuery = true)
+    int materialize(@Param("roundDate") LocalDate roundDate, @Param("requestId") long requestId);
+
+    // Ghi nhận (delta > 0) hoặc hoàn lại (delta < 0) một lần cho uống thuốc vào đúng dòng kế hoạch
+    @Modifying
+    @Query(value = "UPDATE medication_round_items SET dispensed_quantity = GREATEST(dispensed_quantity + :delta, 0), " +
+            "last_schedule_id = :scheduleId, " +
+            "administered_at = CASE WHEN :delta > 0 THEN LOCALTIMESTAMP ELSE administered_at END " +
+            "WHERE round_date = :roundDate AND request_id = :requestId AND slot = :slot", nativeQuery = true)
+    int recordDose(@Param("roundDate") LocalDate roundDate,
+                   @Param("requestId") Long requestId,
+                   @Param("slot") String slot,
+                   @Param("scheduleId") Long scheduleId,
+                   @Param("delta") int delta);
+
+    // Đơn bị hủy xác nhận: bỏ các cữ chưa phát từ ngày fromDate trở đi
+    @Modifying
+    @Query(value = "DELETE FROM medication_round_items WHERE request_id = :requestId AND round_date >= :fromDate " +
+            "AND dispensed_quantity = 0", nativeQuery = true)
+    int deletePending(@Param("requestId") Long requestId, @Param("fromDate") LocalDate fromDate);
+}
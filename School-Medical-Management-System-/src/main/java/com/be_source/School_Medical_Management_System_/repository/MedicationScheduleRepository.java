@@ -1,8 +1,36 @@
 package com.be_source.School_Medical_Management_System_.repository;
 
 import com.be_source.School_Medical_Management_System_.model.MedicationSchedule;
+import com.be_source.School_Medical_Management_System_.response.MedicationScheduleResponse;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
 @Repository
-public interface MedicationScheduleRepository extends JpaRepository<MedicationSchedule, Long> {}
\ No newline at end of file
+public interface MedicationScheduleRepository extends JpaRepository<MedicationSchedule, Long> {
+
+    // Lịch uống thuốc của các con một phụ huynh: lọc theo students.parent_id ngay trên DB, chỉ lấy cột của response,
+    // seek theo (createdAt, scheduleId). Ngày null = bỏ qua; Pageable chỉ để giới hạn số dòng (trả List nên không COUNT).
+    // Tham số ngày được cast vì PostgreSQL không suy ra được kiểu của "? IS NULL" khi JDBC gửi date null.
+    @Query("SELECT new com.be_source.School_Medical_Management_System_.response.MedicationScheduleResponse(" +
+            "m.scheduleId, s.studentId, s.fullName, m.request.requestId, m.scheduledDate, m.scheduledTime, " +
+            "m.notes, a.fullName, m.createdAt, m.dispensedQuantity) " +
+            "FROM MedicationSchedule m JOIN m.student s JOIN m.administeredBy a " +
+            "WHERE s.parent.userId = :parentId " +
+            "AND (CAST(:fromDate AS LocalDate) IS NULL OR m.scheduledDate >= :fromDate) " +
+            "AND (CAST(:toDate AS LocalDate) IS NULL OR m.scheduledDate <= :toDate) " +
+            "AND (m.createdAt, m.scheduleId) < (:cursorAt, :cursorId) " +
+            "ORDER BY m.createdAt DESC, m.scheduleId DESC")
+    List<MedicationScheduleResponse> findForParent(@Param("parentId") Long parentId,
+                                                   @Param("fromDate") LocalDate fromDate,
+                                                   @Param("toDate") LocalDate toDate,
+                                                   @Param("cursorAt") LocalDateTime cursorAt,
+                                                   @Param("cursorId") Long cursorId,
+                                                   Pageable limit);
+}
@@ -0,0 +1,18 @@
+package com.be_source.School_Medical_Management_System_.repository;
+
+import java.time.LocalDateTime;
+
+// Projection cho inbox gộp notifications + notifications_archive (native query, title/content đã resolve từ broadcast)
+public interface NotificationHistoryView {
+    Long getNotificationId();
+    Long getUserId();
+    Long getCreatedById();
+    Long getBroadcastId();
+    String getTitle();
+    String getContent();
+    String getNotificationType();
+    Boolean getReadStatus();
+    Boolean getEmailSent();
+    LocalDateTime getCreatedAt();
+    Boolean getArchived();
+}
@@ -1,17 +1,196 @@
 package com.be_source.School_Medical_Management_System_.repository;
 
+import com.be_source.School_Medical_Management_System_.enums.EmailDeliveryStatus;
 import com.be_source.School_Medical_Management_System_.model.Notification;
-import com.be_source.School_Medical_Management_System_.model.User;
+import jakarta.transaction.Transactional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
-    List<Notification> findByEmailSentFalse();
-    List<Notification> findByUser(User user);
+
+    // Dùng partial index idx_notifications_unread
+    @Modifying
+    @Query(value = "UPDATE notifications SET read_status = true WHERE user_id = :userId AND read_status = false",
+            nativeQuery = true)
+    int markAllReadForUser(@Param("userId") Long userId);
+
+    @Query(value = "SELECT user_id, COUNT(*) FROM notifications WHERE read_status = false GROUP BY user_id",
+            nativeQuery = true)
+    List<Object[]> countUnreadGroupByUser();
+
+    // Outbox: khóa các dòng đến hạn gửi, bỏ qua dòng node khác đang khóa (dùng partial index idx_notifications_email_due)
+    @Query(value = "SELECT notification_id FROM notifications " +
+            "WHERE email_status = 'PENDING' AND next_attempt_at <= LOCALTIMESTAMP " +
+            "ORDER BY next_attempt_at LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Long> lockPendingEmailIds(@Param("limit") int limit);
+
+    // Digest: các noti cùng user, loại digest, chưa đến hạn và chưa thử lần nào được gửi gộp cùng lượt này.
+    // Bỏ qua dòng đang được node khác giữ (claimed_by còn và lease chưa hết).
+    @Query(value = "SELECT notification_id FROM notifications " +
+            "WHERE email_status = 'PENDING' AND notification_type IN (:types) " +
+            "AND COALESCE(email_attempts, 0) = 0 " +
+            "AND (claimed_by IS NULL OR next_attempt_at <= LOCALTIMESTAMP) " +
+            "AND user_id IN (SELECT user_id FROM notifications WHERE notification_id IN (:ids)) " +
+            "AND notification_id NOT IN (:ids) " +
+            "FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Long> lockDigestCompanionIds(@Param("ids") List<Long> ids, @Param("types") List<String> types);
+
+    // Lease: đẩy next_attempt_at ra sau để node khác không claim trùng cho tới khi hết hạn
+    @Modifying
+    @Query(value = "UPDATE notifications SET claimed_by = :node, " +
+            "next_attempt_at = LOCALTIMESTAMP + make_interval(secs => :leaseSeconds), " +
+            "email_attempts = COALESCE(email_attempts, 0) + 1 " +
+            "WHERE notification_id IN (:ids)", nativeQuery = true)
+    int claimForEmail(@Param("ids") List<Long> ids,
+                      @Param("node") String node,
+                      @Param("leaseSeconds") int leaseSeconds);
+
+    @Query("SELECT n FROM Notification n JOIN FETCH n.user LEFT JOIN FETCH n.broadcast WHERE n.notificationId IN :ids")
+    List<Notification> findWithRecipientByIdIn(@Param("ids") List<Long> ids);
+
+    // Chỉ ghi SENT khi node vẫn còn giữ claim; lease đã hết và bị node khác claim lại thì để node đó quyết định
+    @Modifying
+    @Query(value = "UPDATE notifications SET email_sent = true, email_status = 'SENT', claimed_by = NULL, last_email_error = NULL " +
+            "WHERE notification_id IN (:ids) AND claimed_by = :node", nativeQuery = true)
+    int markEmailSent(@Param("ids") List<Long> ids, @Param("node") String node);
+
+    @Modifying
+    @Query(value = "UPDATE notifications SET claimed_by = NULL, next_attempt_at = :nextAttemptAt, last_email_error = :error " +
+            "WHERE notification_id = :id AND claimed_by = :node", nativeQuery = true)
+    int scheduleEmailRetry(@Param("id") Long id,
+                           @Param("node") String node,
+                           @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                           @Param("error") String error);
+
+    @Modifying
+    @Query(value = "UPDATE notifications SET claimed_by = NULL, email_status = 'DEAD', last_email_error = :error " +
+            "WHERE notification_id = :id AND claimed_by = :node", nativeQuery = true)
+    int markEmailDead(@Param("id") Long id, @Param("node") String node, @Param("error") String error);
+
+    @EntityGraph(attributePaths = {"user", "broadcast"})
+    Page<Notification> findByEmailStatus(EmailDeliveryStatus emailStatus, Pageable pageable);
+
+    @Modifying
+    @Query(value = "UPDATE notifications SET email_status = 'PENDING', email_attempts = 0, " +
+            "next_attempt_at = LOCALTIMESTAMP, last_email_error = NULL " +
+            "WHERE notification_id = :id AND email_status = 'DEAD'", nativeQuery = true)
+    int requeueDeadEmail(@Param("id") Long id);
+
+    @Modifying
+    @Query(value = "UPDATE notifications SET email_status = 'PENDING', email_attempts = 0, " +
+            "next_attempt_at = LOCALTIMESTAMP, last_email_error = NULL " +
+            "WHERE email_status = 'DEAD'", nativeQuery = true)
+    int requeueAllDeadEmails();
+
+    @EntityGraph(attributePaths = {"broadcast"})
     Page<Notification> findByUser_UserId(Long userId, Pageable pageable);
+
+    @Override
+    @EntityGraph(attributePaths = {"broadcast"})
+    Page<Notification> findAll(Pageable pageable);
+
+    // Keyset: dùng idx_notifications_user_keyset / idx_notifications_keyset; Pageable chỉ để giới hạn số dòng,
+    // kiểu trả về List nên không chạy COUNT
+    @EntityGraph(attributePaths = {"broadcast"})
+    @Query("SELECT n FROM Notification n WHERE n.user.userId = :userId " +
+            "ORDER BY n.createdAt DESC, n.notificationId DESC")
+    List<Notification> findInboxFirstPage(@Param("userId") Long userId, Pageable limit);
+
+    @EntityGraph(attributePaths = {"broadcast"})
+    @Query("SELECT n FROM Notification n WHERE n.user.userId = :userId " +
+            "AND (n.createdAt, n.notificationId) < (:createdAt, :id) " +
+            "ORDER BY n.createdAt DESC, n.notificationId DESC")
+    List<Notification> findInboxAfter(@Param("userId") Long userId,
+                                      @Param("createdAt") LocalDateTime createdAt,
+                                      @Param("id") Long id,
+                                      Pageable limit);
+
+    @EntityGraph(attributePaths = {"broadcast"})
+    @Query("SELECT n FROM Notification n ORDER BY n.createdAt DESC, n.notificationId DESC")
+    List<Notification> findAllFirstPage(Pageable limit);
+
+    @EntityGraph(attributePaths = {"broadcast"})
+    @Query("SELECT n FROM Notification n WHERE (n.createdAt, n.notificationId) < (:createdAt, :id) " +
+            "ORDER BY n.createdAt DESC, n.notificationId DESC")
+    List<Notification> findAllAfter(@Param("createdAt") LocalDateTime createdAt,
+                                    @Param("id") Long id,
+                                    Pageable limit);
+
+    long countByUser_UserId(Long userId);
+
+    // Retention: chuyển một lô noti đã đọc + đã gửi email sang bảng archive (partition theo tháng) trong một câu lệnh.
+    // Mỗi lần gọi là một transaction riêng để lô nhỏ, khóa ngắn.
+    @Transactional
+    @Modifying
+    @Query(value = "WITH moved AS (" +
+            "DELETE FROM notifications WHERE notification_id IN (" +
+            "SELECT notification_id FROM notifications " +
+            "WHERE read_status = true AND email_status = 'SENT' AND created_at < :cutoff " +
+            "ORDER BY notification_id LIMIT :limit FOR UPDATE SKIP LOCKED) " +
+            "RETURNING notification_id, user_id, created_by, broadcast_id, title, content, " +
+            "notification_type, read_status, email_sent, created_at) " +
+            "INSERT INTO notifications_archive (notification_id, user_id, created_by, broadcast_id, title, content, " +
+            "notification_type, read_status, email_sent, created_at) " +
+            "SELECT notification_id, user_id, created_by, broadcast_id, title, content, " +
+            "notification_type, read_status, email_sent, created_at FROM moved", nativeQuery = true)
+    int archiveChunk(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+
+    @Query(value = "SELECT MIN(created_at) FROM notifications " +
+            "WHERE read_status = true AND email_status = 'SENT' AND created_at < :cutoff", nativeQuery = true)
+    LocalDateTime findOldestArchivableCreatedAt(@Param("cutoff") LocalDateTime cutoff);
+
+    // Inbox kèm lịch sử: seek riêng từng bảng theo index keyset rồi gộp, chỉ đọc tối đa 2 * limit dòng
+    @Query(value = "SELECT * FROM (" +
+            "(SELECT n.notification_id AS notificationId, n.user_id AS userId, n.created_by AS createdById, " +
+            "n.broadcast_id AS broadcastId, COALESCE(n.title, b.title) AS title, COALESCE(n.content, b.content) AS content, " +
+            "n.notification_type AS notificationType, n.read_status AS readStatus, n.email_sent AS emailSent, " +
+            "n.created_at AS createdAt, false AS archived " +
+            "FROM notifications n LEFT JOIN broadcasts b ON b.broadcast_id = n.broadcast_id " +
+            "WHERE n.user_id = :userId AND (n.created_at, n.notification_id) < (:createdAt, :id) " +
+            "ORDER BY n.created_at DESC, n.notification_id DESC LIMIT :limit) " +
+            "UNION ALL " +
+            "(SELECT a.notification_id, a.user_id, a.created_by, a.broadcast_id, COALESCE(a.title, b.title), " +
+            "COALESCE(a.content, b.content), a.notification_type, a.read_status, a.email_sent, a.created_at, true " +
+            "FROM notifications_archive a LEFT JOIN broadcasts b ON b.broadcast_id = a.broadcast_id " +
+            "WHERE a.user_id = :userId AND (a.created_at, a.notification_id) < (:createdAt, :id) " +
+            "ORDER BY a.created_at DESC, a.notification_id DESC LIMIT :limit)" +
+            ") h ORDER BY createdAt DESC, notificationId DESC LIMIT :limit", nativeQuery = true)
+    List<NotificationHistoryView> findInboxWithHistoryAfter(@Param("userId") Long userId,
+                                                            @Param("createdAt") LocalDateTime createdAt,
+                                                            @Param("id") Long id,
+                                                            @Param("limit") int limit);
+
+    // Replay cho client SSE reconnect với Last-Event-ID
+    @EntityGraph(attributePaths = {"broadcast"})
+    List<Notification> findTop100ByUser_UserIdAndNotificationIdGreaterThanOrderByNotificationIdAsc(Long userId, Long notificationId);
+
+    @EntityGraph(attributePaths = {"broadcast", "user"})
+    List<Notification> findByBroadcast_BroadcastIdAndUser_UserIdIn(Long broadcastId, Collection<Long> userIds);
+
+    // Fan-out cho toàn bộ user của một role bằng một câu INSERT ... SELECT,
+    // mỗi dòng chỉ trỏ tới broadcast chứ không copy title/content.
+    // RETURNING trả đúng các user đã được chèn (không đọc lại danh sách role bằng query khác)
+    @Query(value = "INSERT INTO notifications (broadcast_id, created_by, user_id, created_at, read_status, notification_type, " +
+            "email_sent, email_status, email_attempts, next_attempt_at) " +
+            "SELECT :broadcastId, :createdBy, u.user_id, :createdAt, false, :type, false, 'PENDING', 0, :nextAttemptAt " +
+            "FROM users u JOIN roles r ON u.role_id = r.role_id " +
+            "WHERE r.role_name = :roleName " +
+            "RETURNING user_id", nativeQuery = true)
+    List<Long> insertForBroadcast(@Param("broadcastId") Long broadcastId,
+                                  @Param("roleName") String roleName,
+                                  @Param("createdBy") Long createdBy,
+                                  @Param("createdAt") LocalDateTime createdAt,
+                                  @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                                  @Param("type") String type);
 }
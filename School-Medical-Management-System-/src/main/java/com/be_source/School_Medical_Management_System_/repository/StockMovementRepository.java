@@ -0,0 +1,28 @@
+package com.be_source.School_Medical_Management_System_.repository;
+
+import com.be_source.School_Medical_Management_System_.model.StockMovement;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface StockMovementRepository extends JpaRepository<StockMovement, Long> {
+
+    Page<StockMovement> findByInventoryIdOrderByMovementIdDesc(Long inventoryId, Pageable pageable);
+
+    // Tổng biến động sau thời điểm `after`, chỉ tính tới movement `upToId` (đã chốt trong snapshot)
+    @Query("SELECT COALESCE(SUM(m.quantity), 0) FROM StockMovement m " +
+            "WHERE m.inventoryId = :inventoryId AND m.createdAt > :after AND m.movementId <= :upToId")
+    long sumQuantityAfter(@Param("inventoryId") Long inventoryId,
+                          @Param("after") LocalDateTime after,
+                          @Param("upToId") Long upToId);
+
+    // Movement mới nhất đủ cũ để chắc chắn mọi movement id nhỏ hơn đã commit
+    @Query("SELECT MAX(m.movementId) FROM StockMovement m WHERE m.createdAt < :before")
+    Long findMaxSettledId(@Param("before") LocalDateTime before);
+}
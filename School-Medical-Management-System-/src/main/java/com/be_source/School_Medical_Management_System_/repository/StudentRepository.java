@@ -2,7 +2,11 @@ package com.be_source.School_Medical_Management_System_.repository;
 
 import com.be_source.School_Medical_Management_System_.model.Students;
 import com.be_source.School_Medical_Management_System_.model.User;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -13,4 +17,16 @@ public interface StudentRepository extends JpaRepository<Students, Long> {
     List<Students> findByParent(User parent);
     Optional<Students> findByStudentCode(String studentCode);
     List<Students> findByStudentCodeContainingIgnoreCase(String keyword);
+
+    // Tìm theo họ tên/lớp (không dấu) hoặc mã học sinh, dùng GIN pg_trgm; xếp hạng: khớp đầu chuỗi,
+    // rồi độ tương đồng từ (word_similarity, bắt cả gõ sai nhẹ qua toán tử <%). IS TRUE vì student_code null làm
+    // biểu thức ra NULL, mà NULL đứng đầu khi sắp DESC
+    @Query(value = "SELECT s.* FROM students s " +
+            "WHERE s.search_key LIKE :pattern OR UPPER(s.student_code) LIKE UPPER(:pattern) OR :q <% s.search_key " +
+            "ORDER BY (s.search_key LIKE CONCAT(:q, '%') OR UPPER(s.student_code) = UPPER(:q)) IS TRUE DESC, " +
+            "word_similarity(:q, COALESCE(s.search_key, '')) DESC, s.student_id",
+            countQuery = "SELECT COUNT(*) FROM students s " +
+                    "WHERE s.search_key LIKE :pattern OR UPPER(s.student_code) LIKE UPPER(:pattern) OR :q <% s.search_key",
+            nativeQuery = true)
+    Page<Students> search(@Param("q") String normalizedKeyword, @Param("pattern") String pattern, Pageable pageable);
 }
@@ -0,0 +1,30 @@
+package com.be_source.School_Medical_Management_System_.repository;
+
+import com.be_source.School_Medical_Management_System_.model.TokenRevocation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface TokenRevocationRepository extends JpaRepository<TokenRevocation, String> {
+
+    List<TokenRevocation> findByExpiresAtAfter(LocalDateTime now);
+
+    // Thu hồi lại cùng email thì dời mốc về lần mới nhất
+    @Modifying
+    @Query(value = "INSERT INTO token_revocations (email, revoked_at, expires_at) VALUES (:email, :revokedAt, :expiresAt) " +
+            "ON CONFLICT (email) DO UPDATE SET revoked_at = EXCLUDED.revoked_at, expires_at = EXCLUDED.expires_at",
+            nativeQuery = true)
+    int upsert(@Param("email") String email,
+               @Param("revokedAt") LocalDateTime revokedAt,
+               @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Modifying
+    @Query("DELETE FROM TokenRevocation t WHERE t.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -1,6 +1,7 @@
 package com.be_source.School_Medical_Management_System_.repository;
 
 import com.be_source.School_Medical_Management_System_.model.User;
+import com.be_source.School_Medical_Management_System_.security.UserCredential;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -16,4 +17,12 @@ public interface UserRepository extends JpaRepository<User, Long> {
     boolean existsByEmail(String email);
     @Query("SELECT u FROM User u JOIN FETCH u.role WHERE u.role.roleName = :name")
     List<User> findByRoleName(@Param("name") String name);
+
+    @Query("SELECT u FROM User u JOIN FETCH u.role WHERE u.email = :email")
+    Optional<User> findWithRoleByEmail(@Param("email") String email);
+
+    // Lookup theo unique index trên email, chỉ lấy các cột cần cho xác thực
+    @Query("SELECT new com.be_source.School_Medical_Management_System_.security.UserCredential(u.email, u.passwordHash, r.roleName) " +
+            "FROM User u JOIN u.role r WHERE u.email = :email")
+    Optional<UserCredential> findCredentialByEmail(@Param("email") String email);
 }
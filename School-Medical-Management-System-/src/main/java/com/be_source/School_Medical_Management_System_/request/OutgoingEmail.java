@@ -0,0 +1,14 @@
+package com.be_source.School_Medical_Management_System_.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutgoingEmail {
+    private String to;
+    private String subject;
+    private String content; // HTML
+}
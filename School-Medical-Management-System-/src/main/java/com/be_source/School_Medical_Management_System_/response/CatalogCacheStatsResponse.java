@@ -0,0 +1,19 @@
+package com.be_source.School_Medical_Management_System_.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class CatalogCacheStatsResponse {
+    private long hits;
+    private long misses;
+    private long loads;
+    private long evictions;
+    private long expirations;
+    private int size;
+    private boolean liveQuantities;
+    private long ttlSeconds;
+}
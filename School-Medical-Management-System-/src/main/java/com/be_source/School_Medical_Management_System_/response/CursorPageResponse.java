@@ -0,0 +1,20 @@
+package com.be_source.School_Medical_Management_System_.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class CursorPageResponse<T> {
+    private List<T> content;
+    private int size;
+    // Truyền lại làm ?cursor= để lấy trang tiếp; null khi đã hết dữ liệu
+    private String nextCursor;
+    private boolean hasNext;
+    // Chỉ tính khi client yêu cầu includeTotal=true
+    private Long totalElements;
+}
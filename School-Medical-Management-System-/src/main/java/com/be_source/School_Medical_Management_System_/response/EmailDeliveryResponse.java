@@ -0,0 +1,24 @@
+package com.be_source.School_Medical_Management_System_.response;
+
+import com.be_source.School_Medical_Management_System_.enums.EmailDeliveryStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class EmailDeliveryResponse {
+    private Long notificationId;
+    private Long userId;
+    private String email;
+    private String title;
+    private String notificationType;
+    private EmailDeliveryStatus emailStatus;
+    private Integer emailAttempts;
+    private LocalDateTime nextAttemptAt;
+    private String lastEmailError;
+    private LocalDateTime createdAt;
+}
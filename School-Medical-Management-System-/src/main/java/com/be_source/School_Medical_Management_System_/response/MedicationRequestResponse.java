@@ -1,6 +1,7 @@
 package com.be_source.School_Medical_Management_System_.response;
 
 import com.be_source.School_Medical_Management_System_.enums.ConfirmationStatus;
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 
@@ -8,6 +9,7 @@ import java.time.LocalDateTime;
 
 @Data
 @Builder
+@AllArgsConstructor
 public class MedicationRequestResponse {
     private Long requestId;
     private Long studentId;
@@ -0,0 +1,28 @@
+package com.be_source.School_Medical_Management_System_.response;
+
+import com.be_source.School_Medical_Management_System_.enums.MedicationSlot;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class MedicationRoundItemResponse {
+    private Long roundItemId;
+    private LocalDate roundDate;
+    private MedicationSlot slot;
+    private Long requestId;
+    private Long studentId;
+    private String studentName;
+    private String className;
+    private String medicationName;
+    private String plannedQuantity;
+    private Integer dispensedQuantity;
+    private boolean administered;
+    private Long lastScheduleId;
+    private LocalDateTime administeredAt;
+    private Integer availableQuantity;
+    private boolean sufficientStock;
+}
@@ -1,5 +1,6 @@
 package com.be_source.School_Medical_Management_System_.response;
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import java.time.LocalDate;
@@ -8,6 +9,7 @@ import java.time.LocalTime;
 
 @Data
 @Builder
+@AllArgsConstructor
 public class MedicationScheduleResponse {
     private Long scheduleId;
     private Long studentId;
@@ -16,4 +16,7 @@ public class NotificationResponse {
     private Boolean readStatus;
     private Boolean emailSent;
     private String notificationType;
+    private Long broadcastId;
+    // true nếu noti đã được chuyển sang bảng lưu trữ (chỉ đọc)
+    private Boolean archived;
 }
@@ -0,0 +1,21 @@
+package com.be_source.School_Medical_Management_System_.response;
+
+import com.be_source.School_Medical_Management_System_.enums.StockMovementType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class StockMovementResponse {
+    private Long movementId;
+    private Long inventoryId;
+    private StockMovementType movementType;
+    private Integer quantity;
+    private Long scheduleId;
+    private Long createdBy;
+    private LocalDateTime createdAt;
+}
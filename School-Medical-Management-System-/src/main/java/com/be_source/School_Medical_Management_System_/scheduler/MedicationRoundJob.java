@@ -0,0 +1,28 @@
+package com.be_source.School_Medical_Management_System_.scheduler;
+
+import com.be_source.School_Medical_Management_System_.service.MedicationRoundService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * Sinh kế hoạch phát thuốc của ngày (medication_round_items) một lần vào sáng sớm, trước cữ sáng.
+ * Trong ngày kế hoạch được cập nhật dần khi y tá xác nhận đơn và ghi nhận lần cho uống.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MedicationRoundJob {
+
+    private final MedicationRoundService roundService;
+
+    @Scheduled(cron = "${medication.round.cron:0 0 5 * * *}")
+    public void planToday() {
+        LocalDate today = LocalDate.now();
+        int items = roundService.materialize(today);
+        log.info("Planned medication round for {}: {} new items", today, items);
+    }
+}
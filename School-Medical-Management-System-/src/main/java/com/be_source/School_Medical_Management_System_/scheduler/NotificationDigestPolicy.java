@@ -0,0 +1,39 @@
+package com.be_source.School_Medical_Management_System_.scheduler;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cửa sổ gom email (digest) theo loại noti. Noti thuộc loại có cửa sổ > 0 chỉ đến hạn gửi
+ * sau cửa sổ đó; trong lúc chờ, các noti cùng loại digest của cùng user được gom vào một email.
+ * Loại không cấu hình (vd. broadcast CUSTOM_NOTIFICATION, INTERNAL_ANNOUNCEMENT) gửi ngay.
+ */
+@Component
+public class NotificationDigestPolicy {
+
+    public static final String DIGEST_TYPE = "DIGEST";
+
+    @Value("#{${notification.email.digest-window-seconds:{:}}}")
+    private Map<String, Integer> windowSeconds;
+
+    public boolean isDigestible(String type) {
+        return type != null && windowSeconds.getOrDefault(type, 0) > 0;
+    }
+
+    public List<String> digestibleTypes() {
+        return windowSeconds.entrySet().stream()
+                .filter(e -> e.getValue() != null && e.getValue() > 0)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    // Thời điểm gửi lần đầu cho noti mới tạo
+    public LocalDateTime firstAttemptAt(String type, LocalDateTime createdAt) {
+        int window = type != null ? windowSeconds.getOrDefault(type, 0) : 0;
+        return window > 0 ? createdAt.plusSeconds(window) : createdAt;
+    }
+}
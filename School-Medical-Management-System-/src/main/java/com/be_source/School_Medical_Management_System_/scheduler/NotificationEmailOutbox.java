@@ -0,0 +1,96 @@
+package com.be_source.School_Medical_Management_System_.scheduler;
+
+import com.be_source.School_Medical_Management_System_.model.Notification;
+import com.be_source.School_Medical_Management_System_.repository.NotificationRepository;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Các bước giao dịch ngắn của outbox email: claim một batch, đánh dấu đã gửi, trả lại claim.
+ * Việc gửi SMTP nằm ngoài các transaction này để không giữ khóa/kết nối DB trong lúc chờ mạng.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationEmailOutbox {
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final NotificationRepository notificationRepository;
+    private final NotificationDigestPolicy digestPolicy;
+
+    @Value("${notification.email.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${notification.email.retry-base-seconds:30}")
+    private long retryBaseSeconds;
+
+    @Value("${notification.email.retry-max-seconds:21600}")
+    private long retryMaxSeconds;
+
+    // Claim tối đa `limit` noti cho node này; lease hết hạn thì node khác có thể claim lại
+    @Transactional
+    public List<Notification> claimBatch(String node, int limit, int leaseSeconds) {
+        List<Long> ids = notificationRepository.lockPendingEmailIds(limit);
+        if (ids.isEmpty()) return Collections.emptyList();
+
+        List<String> digestTypes = digestPolicy.digestibleTypes();
+        if (!digestTypes.isEmpty()) {
+            List<Long> companions = notificationRepository.lockDigestCompanionIds(ids, digestTypes);
+            if (!companions.isEmpty()) {
+                ids = new ArrayList<>(ids);
+                ids.addAll(companions);
+            }
+        }
+
+        notificationRepository.claimForEmail(ids, node, leaseSeconds);
+        return notificationRepository.findWithRecipientByIdIn(ids);
+    }
+
+    @Transactional
+    public void markSent(List<Long> ids, String node) {
+        if (ids.isEmpty()) return;
+        int updated = notificationRepository.markEmailSent(ids, node);
+        if (updated < ids.size()) {
+            // Lease hết hạn trước khi gửi xong: node khác đã claim lại nên email có thể bị gửi lặp
+            log.warn("Node {} lost the claim on {} of {} sent notifications before marking them sent",
+                    node, ids.size() - updated, ids.size());
+        }
+    }
+
+    // Noti lỗi: lùi lịch theo cấp số nhân, quá số lần cho phép thì chuyển DEAD
+    @Transactional
+    public void recordFailures(List<Notification> failed, String node) {
+        for (Notification noti : failed) {
+            int attempts = noti.getEmailAttempts() != null ? noti.getEmailAttempts() : 1;
+            String error = truncate(noti.getLastEmailError());
+
+            if (attempts >= maxAttempts) {
+                notificationRepository.markEmailDead(noti.getNotificationId(), node, error);
+                log.warn("Notification {} moved to dead letters after {} attempts", noti.getNotificationId(), attempts);
+            } else {
+                notificationRepository.scheduleEmailRetry(
+                        noti.getNotificationId(), node, LocalDateTime.now().plusSeconds(backoffSeconds(attempts)), error);
+            }
+        }
+    }
+
+    // base * 2^(attempts-1), chặn trên bởi retryMaxSeconds
+    long backoffSeconds(int attempts) {
+        int exponent = Math.min(Math.max(attempts - 1, 0), 30);
+        return Math.min(retryBaseSeconds << exponent, retryMaxSeconds);
+    }
+
+    private String truncate(String error) {
+        if (error == null || error.length() <= MAX_ERROR_LENGTH) return error;
+        return error.substring(0, MAX_ERROR_LENGTH);
+    }
+}
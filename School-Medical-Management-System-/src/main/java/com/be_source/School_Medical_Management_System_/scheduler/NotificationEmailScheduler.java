@@ -1,183 +1,195 @@
 package com.be_source.School_Medical_Management_System_.scheduler;
 
 import com.be_source.School_Medical_Management_System_.model.Notification;
-import com.be_source.School_Medical_Management_System_.repository.NotificationRepository;
+import com.be_source.School_Medical_Management_System_.request.OutgoingEmail;
 import com.be_source.School_Medical_Management_System_.service.EmailService;
-import jakarta.transaction.Transactional;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
-import java.time.Year;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
 
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class NotificationEmailScheduler {
 
-    private final NotificationRepository notificationRepository;
+    private final NotificationEmailOutbox outbox;
     private final EmailService emailService;
+    private final NotificationEmailTemplate emailTemplate;
+    private final NotificationDigestPolicy digestPolicy;
 
-    private final String PARENT_PORTAL_URL = "http://localhost:5173/";
+    @Value("${notification.email.batch-size:100}")
+    private int batchSize;
 
-    @Scheduled(fixedRate = 5000) // every 5s
-    @Transactional
-    public void sendNotificationEmails() {
-        List<Notification> pending = notificationRepository.findByEmailSentFalse();
+    @Value("${notification.email.lease-seconds:300}")
+    private int leaseSeconds;
+
+    // Giới hạn số kết nối đồng thời tới SMTP relay (spring.mail.host)
+    @Value("${notification.email.smtp-max-concurrency:4}")
+    private int smtpMaxConcurrency;
 
-        for (Notification noti : pending) {
-            try {
-                String to = noti.getUser().getEmail();
-                if (to == null || to.isBlank()) continue;
+    // Số email gửi liên tiếp trên cùng một kết nối SMTP
+    @Value("${notification.email.smtp-batch-size:20}")
+    private int smtpBatchSize;
 
-                String recipientName = Optional.ofNullable(noti.getUser().getFullName()).orElse("Parent");
+    @Value("${spring.mail.host:smtp}")
+    private String smtpHost;
 
-                String emailHeader = getEmailHeader(noti.getNotificationType());
-                String typeLabel = getTypeLabel(noti.getNotificationType());
-                String subject = "[SMMS] " + emailHeader + " – " + noti.getTitle();
+    private final String nodeId = UUID.randomUUID().toString();
 
-                String html = buildEmailTemplate(typeLabel, emailHeader, noti.getContent(), recipientName);
-                emailService.sendEmail(to, subject, html);
+    private ExecutorService sendExecutor;
+    private Semaphore smtpPermits;
 
-                noti.setEmailSent(true);
-                notificationRepository.save(noti);
+    @PostConstruct
+    void init() {
+        sendExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        smtpPermits = new Semaphore(smtpMaxConcurrency);
+        log.info("Email dispatcher node {} (batch {}, {} concurrent connections to {})",
+                nodeId, batchSize, smtpMaxConcurrency, smtpHost);
+    }
 
-                log.info("✅ Email sent to {}", to);
-            } catch (Exception e) {
-                log.error("❌ Failed to send email for notification {}", noti.getNotificationId(), e);
+    @PreDestroy
+    void shutdown() {
+        sendExecutor.shutdown();
+    }
+
+    // fixedDelay: lượt sau chỉ bắt đầu khi lượt trước xong, không chồng lấn
+    @Scheduled(fixedDelayString = "${notification.email.poll-interval-ms:5000}")
+    public void sendNotificationEmails() {
+        List<Notification> batch;
+        do {
+            batch = outbox.claimBatch(nodeId, batchSize, leaseSeconds);
+            if (!batch.isEmpty()) {
+                dispatch(batch);
             }
+        } while (batch.size() >= batchSize);
+    }
+
+    private void dispatch(List<Notification> batch) {
+        Queue<Long> done = new ConcurrentLinkedQueue<>();
+        Queue<Notification> failed = new ConcurrentLinkedQueue<>();
+
+        List<List<Notification>> groups = groupForDelivery(batch, done);
+
+        // Mỗi chunk dùng một kết nối SMTP; số chunk chạy song song bị chặn bởi smtpPermits
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int from = 0; from < groups.size(); from += smtpBatchSize) {
+            List<List<Notification>> chunk = groups.subList(from, Math.min(from + smtpBatchSize, groups.size()));
+            tasks.add(() -> {
+                sendChunk(chunk, done, failed);
+                return null;
+            });
         }
+
+        try {
+            sendExecutor.invokeAll(tasks);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // Ghi trạng thái theo batch; noti chưa xử lý xong sẽ được claim lại khi lease hết hạn
+        outbox.markSent(List.copyOf(done), nodeId);
+        outbox.recordFailures(List.copyOf(failed), nodeId);
     }
 
-    private String getEmailHeader(String type) {
-        return switch (type) {
-            case "HEALTH_EVENT" -> "Vừa có sự kiện y tế mới được tạo!";
-            case "HEALTH_INCIDENT" -> "Vừa có tai nạn xảy ra liên quan đến học sinh!";
-            case "MEDICATION_REQUEST" -> "Yêu cầu cấp phát thuốc của bạn đã được cập nhật!";
-            case "MEDICATION_ADMINISTERED", "MEDICATION_SCHEDULE" -> "Đơn thuốc của học sinh đã được cấp phát.";
-            case "EVENT_SIGNUP" -> "Trạng thái đăng ký sự kiện vừa được thay đổi.";
-            case "EVENT_UPDATED" -> "Một sự kiện y tế đã được cập nhật.";
-            case "EVENT_DELETED" -> "Một sự kiện y tế đã bị hủy.";
-            case "INTERNAL_ANNOUNCEMENT" -> "Bạn có một thông báo mới từ hiệu trưởng.";
-            case "CUSTOM" -> "Thông báo từ trường học.";
-            case "STUDENT_CONFIRMED" -> "Thông tin học sinh đã được xác nhận.";
-            case "STUDENT_UNCONFIRMED" -> "Thông tin học sinh không được chấp nhận.";
-            default -> "Thông báo y tế từ nhà trường.";
-        };
+    // Mỗi nhóm thành một email: noti loại digest của cùng user gộp lại, loại khẩn gửi riêng
+    private List<List<Notification>> groupForDelivery(List<Notification> batch, Queue<Long> done) {
+        List<List<Notification>> groups = new ArrayList<>();
+        Map<Long, List<Notification>> digestByUser = new LinkedHashMap<>();
+        for (Notification noti : batch) {
+            String to = noti.getUser().getEmail();
+            // Không có địa chỉ email: coi như đã xử lý để không bị claim lại mãi
+            if (to == null || to.isBlank()) {
+                done.add(noti.getNotificationId());
+            } else if (digestPolicy.isDigestible(noti.getNotificationType())) {
+                digestByUser.computeIfAbsent(noti.getUser().getUserId(), id -> new ArrayList<>()).add(noti);
+            } else {
+                groups.add(List.of(noti));
+            }
+        }
+        groups.addAll(digestByUser.values());
+        return groups;
     }
 
-    private String getTypeLabel(String type) {
-        return switch (type) {
-            case "HEALTH_EVENT" -> "📅 Health Event Notice";
-            case "HEALTH_INCIDENT" -> "🚑 Health Incident Alert";
-            case "MEDICATION_REQUEST" -> "💊 Medication Request Update";
-            case "MEDICATION_ADMINISTERED", "MEDICATION_SCHEDULE" -> "✅ Medication Administered";
-            case "EVENT_SIGNUP" -> "📥 Event Signup Status";
-            case "EVENT_UPDATED" -> "🔄 Event Updated";
-            case "EVENT_DELETED" -> "❌ Event Deleted";
-            case "INTERNAL_ANNOUNCEMENT" -> "📩 Message from Principal";
-            case "CUSTOM" -> "📢 General Notification";
-            case "STUDENT_CONFIRMED" -> "✅ Student Confirmed";
-            case "STUDENT_UNCONFIRMED" -> "❌ Student Not Accepted";
-            default -> "📌 School Notification";
-        };
+    private void sendChunk(List<List<Notification>> chunk, Queue<Long> done, Queue<Notification> failed) {
+        List<OutgoingEmail> emails = chunk.stream().map(this::toEmail).toList();
+
+        Map<Integer, String> failures;
+        try {
+            smtpPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            chunk.forEach(group -> group.forEach(noti -> {
+                noti.setLastEmailError("Interrupted before sending");
+                failed.add(noti);
+            }));
+            return;
+        }
+        try {
+            failures = emailService.sendAll(emails);
+        } catch (Exception e) {
+            failures = new HashMap<>();
+            for (int i = 0; i < emails.size(); i++) failures.put(i, e.getMessage());
+        } finally {
+            smtpPermits.release();
+        }
+
+        for (int i = 0; i < chunk.size(); i++) {
+            List<Notification> group = chunk.get(i);
+            if (!failures.containsKey(i)) {
+                group.forEach(noti -> done.add(noti.getNotificationId()));
+                log.info("✅ Email sent to {} ({} notifications)", emails.get(i).getTo(), group.size());
+            } else {
+                String error = failures.get(i);
+                for (Notification noti : group) {
+                    log.error("❌ Failed to send email for notification {} (attempt {}): {}",
+                            noti.getNotificationId(), noti.getEmailAttempts(), error);
+                    noti.setLastEmailError(error);
+                    failed.add(noti);
+                }
+            }
+        }
     }
 
-    private String buildEmailTemplate(String tag, String header, String content, String recipientName) {
-        return String.format("""
-                <!DOCTYPE html>
-                <html>
-                <head>
-                  <meta charset='UTF-8'>
-                  <title>School Health Notification</title>
-                  <style>
-                    body {
-                      font-family: 'Segoe UI', sans-serif;
-                      background-color: #f4f6f9;
-                      color: #333;
-                      margin: 0;
-                      padding: 0;
-                    }
-                    .email-container {
-                      max-width: 600px;
-                      margin: 30px auto;
-                      background-color: #fff;
-                      border-radius: 10px;
-                      box-shadow: 0 4px 12px rgba(0,0,0,0.1);
-                      padding: 30px;
-                    }
-                    .header {
-                      text-align: center;
-                      border-bottom: 1px solid #e0e0e0;
-                      padding-bottom: 10px;
-                      margin-bottom: 20px;
-                    }
-                    .header h2 {
-                      color: #2e86de;
-                      margin-bottom: 5px;
-                    }
-                    .tag {
-                      display: inline-block;
-                      background-color: #eaf4ff;
-                      color: #2e86de;
-                      padding: 4px 10px;
-                      font-size: 13px;
-                      border-radius: 20px;
-                      margin-top: 5px;
-                    }
-                    .content {
-                      font-size: 16px;
-                      line-height: 1.6;
-                    }
-                    .note {
-                      background-color: #f9f9f9;
-                      border-left: 4px solid #2e86de;
-                      padding: 10px 15px;
-                      margin-top: 20px;
-                      font-style: italic;
-                      color: #444;
-                    }
-                    .button {
-                      display: inline-block;
-                      margin-top: 20px;
-                      padding: 12px 24px;
-                      background-color: #2e86de;
-                      color: white;
-                      text-decoration: none;
-                      border-radius: 5px;
-                    }
-                    .footer {
-                      margin-top: 30px;
-                      font-size: 13px;
-                      color: #888;
-                      text-align: center;
-                    }
-                  </style>
-                </head>
-                <body>
-                  <div class='email-container'>
-                    <div class='header'>
-                      <h2>🏥 School Medical Notification</h2>
-                      <div class='tag'>%s</div>
-                      <p><strong>%s</strong></p>
-                    </div>
-                    <div class='content'>
-                      <p>Dear %s,</p>
-                      <p>%s</p>
-                      <div class='note'>
-                        This is an automated health alert from your child’s school. Please check the Parent Portal for more details.
-                      </div>
-                      <a href='%s' class='button'>View in Parent Portal</a>
-                    </div>
-                    <div class='footer'>
-                      &copy; %d School Medical Management System – All rights reserved.
-                    </div>
-                  </div>
-                </body>
-                </html>
-                """, tag, header, recipientName, content, PARENT_PORTAL_URL, Year.now().getValue());
+    private OutgoingEmail toEmail(List<Notification> group) {
+        Notification first = group.get(0);
+        String to = first.getUser().getEmail();
+        String recipientName = Optional.ofNullable(first.getUser().getFullName()).orElse("Parent");
+
+        if (group.size() == 1) {
+            String emailHeader = emailTemplate.getEmailHeader(first.getNotificationType());
+            String subject = "[SMMS] " + emailHeader + " – " + first.resolveTitle();
+            String html = emailTemplate.render(first.getNotificationType(), recipientName, first.resolveContent());
+            return new OutgoingEmail(to, subject, html);
+        }
+
+        StringBuilder content = new StringBuilder();
+        for (Notification noti : group) {
+            content.append("<div class='digest-item'><strong>")
+                    .append(Optional.ofNullable(noti.resolveTitle()).orElse(""))
+                    .append("</strong><p>")
+                    .append(Optional.ofNullable(noti.resolveContent()).orElse(""))
+                    .append("</p></div>");
+        }
+        String subject = "[SMMS] Bạn có " + group.size() + " thông báo mới từ nhà trường";
+        String html = emailTemplate.render(NotificationDigestPolicy.DIGEST_TYPE, recipientName, content.toString());
+        return new OutgoingEmail(to, subject, html);
     }
 }
@@ -0,0 +1,218 @@
+package com.be_source.School_Medical_Management_System_.scheduler;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Render email thông báo từ template HTML trên classpath (templates/email/notification[-TYPE].html).
+ * Template được tách thành các đoạn tĩnh + placeholder {{key}} một lần khi khởi động; các giá trị
+ * cố định theo loại noti (tag, header, portal URL, năm) được điền sẵn và cache theo loại,
+ * nên mỗi email chỉ còn ghép tên người nhận và nội dung vào một buffer đã tính trước kích thước.
+ */
+@Component
+@Slf4j
+public class NotificationEmailTemplate {
+
+    private static final String TEMPLATE_DIR = "classpath:templates/email/";
+    private static final String DEFAULT_TEMPLATE = "notification";
+    private static final String PARENT_PORTAL_URL = "http://localhost:5173/";
+
+    private final ResourceLoader resourceLoader;
+
+    private CompiledTemplate defaultTemplate;
+    private final Map<String, CompiledTemplate> typeTemplates = new ConcurrentHashMap<>();
+    private final Map<String, CompiledTemplate> preparedByType = new ConcurrentHashMap<>();
+    private volatile int preparedYear;
+
+    public NotificationEmailTemplate(ResourceLoader resourceLoader) {
+        this.resourceLoader = resourceLoader;
+    }
+
+    @PostConstruct
+    void init() {
+        defaultTemplate = CompiledTemplate.compile(load(DEFAULT_TEMPLATE));
+        preparedYear = Year.now().getValue();
+    }
+
+    public String render(String type, String recipientName, String content) {
+        int year = Year.now().getValue();
+        if (year != preparedYear) {
+            preparedByType.clear();
+            preparedYear = year;
+        }
+        String key = type != null ? type : "";
+        CompiledTemplate prepared = preparedByType.computeIfAbsent(key, t -> templateFor(t).bind(Map.of(
+                "tag", getTypeLabel(type),
+                "header", getEmailHeader(type),
+                "portalUrl", PARENT_PORTAL_URL,
+                "year", String.valueOf(year)
+        )));
+        return prepared.render(Map.of(
+                "recipientName", recipientName != null ? recipientName : "",
+                "content", content != null ? content : ""
+        ));
+    }
+
+    public String getEmailHeader(String type) {
+        if (type == null) return "Thông báo y tế từ nhà trường.";
+        return switch (type) {
+            case "HEALTH_EVENT" -> "Vừa có sự kiện y tế mới được tạo!";
+            case "HEALTH_INCIDENT" -> "Vừa có tai nạn xảy ra liên quan đến học sinh!";
+            case "MEDICATION_REQUEST" -> "Yêu cầu cấp phát thuốc của bạn đã được cập nhật!";
+            case "MEDICATION_ADMINISTERED", "MEDICATION_SCHEDULE" -> "Đơn thuốc của học sinh đã được cấp phát.";
+            case "EVENT_SIGNUP" -> "Trạng thái đăng ký sự kiện vừa được thay đổi.";
+            case "EVENT_UPDATED" -> "Một sự kiện y tế đã được cập nhật.";
+            case "EVENT_DELETED" -> "Một sự kiện y tế đã bị hủy.";
+            case "INTERNAL_ANNOUNCEMENT" -> "Bạn có một thông báo mới từ hiệu trưởng.";
+            case "CUSTOM" -> "Thông báo từ trường học.";
+            case "STUDENT_CONFIRMED" -> "Thông tin học sinh đã được xác nhận.";
+            case "STUDENT_UNCONFIRMED" -> "Thông tin học sinh không được chấp nhận.";
+            case "DIGEST" -> "Bạn có nhiều thông báo mới từ nhà trường.";
+            default -> "Thông báo y tế từ nhà trường.";
+        };
+    }
+
+    public String getTypeLabel(String type) {
+        if (type == null) return "📌 School Notification";
+        return switch (type) {
+            case "HEALTH_EVENT" -> "📅 Health Event Notice";
+            case "HEALTH_INCIDENT" -> "🚑 Health Incident Alert";
+            case "MEDICATION_REQUEST" -> "💊 Medication Request Update";
+            case "MEDICATION_ADMINISTERED", "MEDICATION_SCHEDULE" -> "✅ Medication Administered";
+            case "EVENT_SIGNUP" -> "📥 Event Signup Status";
+            case "EVENT_UPDATED" -> "🔄 Event Updated";
+            case "EVENT_DELETED" -> "❌ Event Deleted";
+            case "INTERNAL_ANNOUNCEMENT" -> "📩 Message from Principal";
+            case "CUSTOM" -> "📢 General Notification";
+            case "STUDENT_CONFIRMED" -> "✅ Student Confirmed";
+            case "STUDENT_UNCONFIRMED" -> "❌ Student Not Accepted";
+            case "DIGEST" -> "🗂 Notification Digest";
+            default -> "📌 School Notification";
+        };
+    }
+
+    // Template riêng theo loại nếu có file notification-<TYPE>.html, ngược lại dùng template mặc định
+    private CompiledTemplate templateFor(String type) {
+        if (type.isEmpty()) return defaultTemplate;
+        return typeTemplates.computeIfAbsent(type, t -> {
+            String source = loadIfExists(DEFAULT_TEMPLATE + "-" + t);
+            return source != null ? CompiledTemplate.compile(source) : defaultTemplate;
+        });
+    }
+
+    private String load(String name) {
+        String source = loadIfExists(name);
+        if (source == null) {
+            throw new IllegalStateException("Email template not found: " + TEMPLATE_DIR + name + ".html");
+        }
+        return source;
+    }
+
+    private String loadIfExists(String name) {
+        Resource resource = resourceLoader.getResource(TEMPLATE_DIR + name + ".html");
+        if (!resource.exists()) return null;
+        try (InputStream in = resource.getInputStream()) {
+            log.info("Loaded email template {}", resource.getDescription());
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read email template " + name, e);
+        }
+    }
+
+    /**
+     * Template đã tách: parts[i] là đoạn tĩnh khi keys[i] == null, ngược lại là placeholder keys[i].
+     * Immutable nên dùng chung giữa các thread gửi mail.
+     */
+    static final class CompiledTemplate {
+
+        private static final String OPEN = "{{";
+        private static final String CLOSE = "}}";
+
+        private final String[] parts;
+        private final String[] keys;
+        private final int staticLength;
+
+        private CompiledTemplate(List<String> parts, List<String> keys) {
+            this.parts = parts.toArray(new String[0]);
+            this.keys = keys.toArray(new String[0]);
+            int length = 0;
+            for (int i = 0; i < this.parts.length; i++) {
+                if (this.keys[i] == null) length += this.parts[i].length();
+            }
+            this.staticLength = length;
+        }
+
+        static CompiledTemplate compile(String source) {
+            List<String> parts = new ArrayList<>();
+            List<String> keys = new ArrayList<>();
+            int pos = 0;
+            while (pos < source.length()) {
+                int open = source.indexOf(OPEN, pos);
+                int close = open < 0 ? -1 : source.indexOf(CLOSE, open + OPEN.length());
+                if (open < 0 || close < 0) {
+                    parts.add(source.substring(pos));
+                    keys.add(null);
+                    break;
+                }
+                if (open > pos) {
+                    parts.add(source.substring(pos, open));
+                    keys.add(null);
+                }
+                parts.add(null);
+                keys.add(source.substring(open + OPEN.length(), close).trim());
+                pos = close + CLOSE.length();
+            }
+            return new CompiledTemplate(parts, keys);
+        }
+
+        // Điền trước một số placeholder, gộp các đoạn tĩnh liền kề
+        CompiledTemplate bind(Map<String, String> values) {
+            List<String> parts = new ArrayList<>();
+            List<String> keys = new ArrayList<>();
+            StringBuilder literal = new StringBuilder();
+            for (int i = 0; i < this.parts.length; i++) {
+                String key = this.keys[i];
+                if (key == null || values.containsKey(key)) {
+                    literal.append(key == null ? this.parts[i] : values.get(key));
+                    continue;
+                }
+                if (!literal.isEmpty()) {
+                    parts.add(literal.toString());
+                    keys.add(null);
+                    literal.setLength(0);
+                }
+                parts.add(null);
+                keys.add(key);
+            }
+            if (!literal.isEmpty()) {
+                parts.add(literal.toString());
+                keys.add(null);
+            }
+            return new CompiledTemplate(parts, keys);
+        }
+
+        String render(Map<String, String> values) {
+            int size = staticLength;
+            for (String key : keys) {
+                if (key != null) size += values.getOrDefault(key, "").length();
+            }
+            StringBuilder out = new StringBuilder(size);
+            for (int i = 0; i < parts.length; i++) {
+                out.append(keys[i] == null ? parts[i] : values.getOrDefault(keys[i], ""));
+            }
+            return out.toString();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.be_source.School_Medical_Management_System_.scheduler;
+
+import com.be_source.School_Medical_Management_System_.repository.NotificationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Dọn bảng notifications ngoài giờ cao điểm: noti đã đọc, đã gửi email và cũ hơn retention-days
+ * được chuyển sang notifications_archive (partition theo tháng của created_at) theo từng lô nhỏ.
+ * Inbox vẫn đọc được lịch sử qua includeArchived=true.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationRetentionJob {
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private final NotificationRepository notificationRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${notification.retention.enabled:true}")
+    private boolean enabled;
+
+    @Value("${notification.retention.days:180}")
+    private int retentionDays;
+
+    @Value("${notification.retention.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${notification.retention.max-run-minutes:30}")
+    private long maxRunMinutes;
+
+    @Scheduled(cron = "${notification.retention.cron:0 30 2 * * *}")
+    public void archiveOldNotifications() {
+        if (!enabled) return;
+
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+        LocalDateTime oldest = notificationRepository.findOldestArchivableCreatedAt(cutoff);
+        if (oldest == null) return;
+
+        ensurePartitions(YearMonth.from(oldest), YearMonth.from(cutoff));
+
+        long deadline = System.nanoTime() + Duration.ofMinutes(maxRunMinutes).toNanos();
+        long total = 0;
+        int moved;
+        // Dừng khi hết dòng hoặc hết khung giờ; phần còn lại để lần chạy sau
+        do {
+            moved = notificationRepository.archiveChunk(cutoff, chunkSize);
+            total += moved;
+        } while (moved == chunkSize && System.nanoTime() < deadline);
+
+        log.info("Archived {} notifications created before {}", total, cutoff);
+    }
+
+    // Tạo partition tháng trước khi chuyển dữ liệu để partition DEFAULT luôn rỗng
+    private void ensurePartitions(YearMonth from, YearMonth to) {
+        for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS notifications_archive_" + month.format(PARTITION_SUFFIX) +
+                    " PARTITION OF notifications_archive FOR VALUES FROM ('" + month.atDay(1) +
+                    "') TO ('" + month.plusMonths(1).atDay(1) + "')");
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.be_source.School_Medical_Management_System_.scheduler;
+
+import com.be_source.School_Medical_Management_System_.repository.InventoryBalanceSnapshotRepository;
+import com.be_source.School_Medical_Management_System_.repository.StockMovementRepository;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Chốt tồn kho định kỳ từ sổ cái stock_movements vào inventory_balance_snapshots,
+ * để tra tồn tại một thời điểm quá khứ không phải cộng dồn toàn bộ lịch sử.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StockLedgerCompactionJob {
+
+    private final StockMovementRepository stockMovementRepository;
+    private final InventoryBalanceSnapshotRepository snapshotRepository;
+
+    // Movement mới hơn khoảng này có thể còn transaction chưa commit với id nhỏ hơn
+    @Value("${inventory.ledger.settle-seconds:300}")
+    private long settleSeconds;
+
+    @Scheduled(cron = "${inventory.ledger.compaction-cron:0 15 1 * * *}")
+    @Transactional
+    public void compact() {
+        Long maxId = stockMovementRepository.findMaxSettledId(LocalDateTime.now().minusSeconds(settleSeconds));
+        if (maxId == null) return;
+
+        int snapshots = snapshotRepository.compactUpTo(maxId);
+        log.info("Compacted stock ledger up to movement {} ({} inventories)", maxId, snapshots);
+    }
+}
@@ -0,0 +1,48 @@
+package com.be_source.School_Medical_Management_System_.security;
+
+import com.be_source.School_Medical_Management_System_.model.User;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Giữ entity User đã resolve cho request hiện tại (lưu trong request attribute) để các service dùng chung,
+ * chỉ load entity tối đa một lần mỗi request và chỉ khi có service cần tới. Filter JWT không load entity
+ * (chỉ đọc projection UserCredential), nên request không gọi getCurrentUser không phải hydrate User + Role.
+ * Ngoài request (scheduler, async) thì luôn gọi loader.
+ */
+public final class CurrentUserHolder {
+
+    private static final String USER_ATTRIBUTE = CurrentUserHolder.class.getName() + ".USER";
+    private static final String LOOKUP_COUNT_ATTRIBUTE = CurrentUserHolder.class.getName() + ".LOOKUP_COUNT";
+
+    private CurrentUserHolder() {
+    }
+
+    public static Optional<User> resolve(String email, Function<String, Optional<User>> loader) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return loader.apply(email);
+        }
+
+        Object cached = attributes.getAttribute(USER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (cached instanceof User user && email.equals(user.getEmail())) {
+            return Optional.of(user);
+        }
+
+        Optional<User> loaded = loader.apply(email);
+        attributes.setAttribute(LOOKUP_COUNT_ATTRIBUTE, getLookupCount() + 1, RequestAttributes.SCOPE_REQUEST);
+        loaded.ifPresent(user -> attributes.setAttribute(USER_ATTRIBUTE, user, RequestAttributes.SCOPE_REQUEST));
+        return loaded;
+    }
+
+    // Số lần truy vấn user trong request hiện tại (mục tiêu: <= 1)
+    public static int getLookupCount() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) return 0;
+        Object count = attributes.getAttribute(LOOKUP_COUNT_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        return count instanceof Integer value ? value : 0;
+    }
+}
@@ -1,25 +1,41 @@
 package com.be_source.School_Medical_Management_System_.security;
 
+import com.be_source.School_Medical_Management_System_.service.TokenRevocationService;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.web.filter.OncePerRequestFilter;
 import java.io.IOException;
+import java.util.Collections;
 
+@Slf4j
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
-    private final UserDetailsService userDetailsService;
+    private final UserDetailsServiceImpl userDetailsService;
+    private final TokenRevocationService tokenRevocationService;
+    private final boolean stateless;
 
-    public JwtAuthenticationFilter(JwtUtil jwtUtil, UserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(JwtUtil jwtUtil, UserDetailsServiceImpl userDetailsService) {
+        this(jwtUtil, userDetailsService, null, false);
+    }
+
+    public JwtAuthenticationFilter(JwtUtil jwtUtil,
+                                   UserDetailsServiceImpl userDetailsService,
+                                   TokenRevocationService tokenRevocationService,
+                                   boolean stateless) {
         this.jwtUtil = jwtUtil;
         this.userDetailsService = userDetailsService;
+        this.tokenRevocationService = tokenRevocationService;
+        this.stateless = stateless;
     }
 
     @Override
@@ -36,10 +52,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         try {
-            String email = jwtUtil.extractUsername(authHeader);
-            if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = userDetailsService.loadUserByUsername(email);
-                if (jwtUtil.isTokenValid(authHeader, userDetails)) {
+            // Parse token đúng một lần cho mỗi request
+            Claims claims = jwtUtil.extractAllClaims(authHeader);
+            String email = claims.getSubject();
+            if (email != null && SecurityContextHolder.getContext().getAuthentication() == null
+                    && !isRevoked(email, claims)) {
+                UserDetails userDetails = stateless
+                        ? userDetailsFromClaims(email, claims)
+                        : userDetailsService.loadUserByUsername(email);
+                if (userDetails != null && jwtUtil.isTokenValid(claims, userDetails)) {
                     UsernamePasswordAuthenticationToken authToken =
                             new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                     authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -50,6 +71,30 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             System.err.println("Invalid JWT: " + e.getMessage());
         }
 
-        filterChain.doFilter(request, response);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            int lookups = CurrentUserHolder.getLookupCount();
+            if (lookups > 1) {
+                log.warn("{} user lookups for {} {}", lookups, request.getMethod(), request.getRequestURI());
+            } else {
+                log.debug("{} user lookups for {} {}", lookups, request.getMethod(), request.getRequestURI());
+            }
+        }
+    }
+
+    private boolean isRevoked(String email, Claims claims) {
+        return tokenRevocationService != null && tokenRevocationService.isRevoked(email, claims.getIssuedAt());
+    }
+
+    // Chế độ stateless: tin vào claim role đã ký trong token, không truy vấn DB
+    private UserDetails userDetailsFromClaims(String email, Claims claims) {
+        String role = jwtUtil.extractRole(claims);
+        if (role == null) return null;
+        return new org.springframework.security.core.userdetails.User(
+                email,
+                "",
+                Collections.singleton(new SimpleGrantedAuthority("ROLE_" + role.toUpperCase()))
+        );
     }
 }
@@ -3,6 +3,7 @@ package com.be_source.School_Medical_Management_System_.security;
 import com.be_source.School_Medical_Management_System_.model.User;
 import com.be_source.School_Medical_Management_System_.repository.UserRepository;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
@@ -21,6 +22,14 @@ public class JwtUtil {
 
     private static final String SECRET_KEY_STRING = "my_super_secret_key_1234567890123456"; // >= 32 ký tự
 
+    public static final long TOKEN_VALIDITY_MS = 1000 * 60 * 60 * 10; // 10 tiếng
+
+    // Key và parser là immutable/thread-safe nên chỉ dựng một lần
+    private final Key signingKey = Keys.hmacShaKeyFor(SECRET_KEY_STRING.getBytes(StandardCharsets.UTF_8));
+    private final JwtParser jwtParser = Jwts.parserBuilder()
+            .setSigningKey(signingKey)
+            .build();
+
     @Autowired
     private UserRepository userRepository;
 
@@ -30,8 +39,7 @@ public class JwtUtil {
     }
 
     private Key getSigningKey() {
-        byte[] keyBytes = SECRET_KEY_STRING.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+        return signingKey;
     }
 
     public String extractUsername(String token) {
@@ -40,7 +48,7 @@ public class JwtUtil {
 
     public User extractUserFromToken(String token) {
         String email = extractUsername(token);
-        return userRepository.findByEmail(email)
+        return CurrentUserHolder.resolve(email, userRepository::findWithRoleByEmail)
                 .orElseThrow(() -> new RuntimeException("User not found"));
     }
 
@@ -53,17 +61,20 @@ public class JwtUtil {
         return claimsResolver.apply(claims);
     }
 
-    private Claims extractAllClaims(String token) {
+    // Parse + verify chữ ký một lần; token hết hạn sẽ ném ExpiredJwtException
+    public Claims extractAllClaims(String token) {
         String cleanedToken = cleanToken(token);
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
+        return jwtParser
                 .parseClaimsJws(cleanedToken)
                 .getBody();
     }
 
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    public String extractRole(Claims claims) {
+        return claims.get("role", String.class);
+    }
+
+    private Boolean isTokenExpired(Claims claims) {
+        return claims.getExpiration().before(new Date());
     }
 
     public String generateToken(UserDetails userDetails, String role) {
@@ -77,13 +88,17 @@ public class JwtUtil {
                 .setClaims(claims)
                 .setSubject(username)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + 1000 * 60 * 60 * 10))  // 10 tiếng
+                .setExpiration(new Date(System.currentTimeMillis() + TOKEN_VALIDITY_MS))
                 .signWith(getSigningKey(), SignatureAlgorithm.HS256)
                 .compact();
     }
 
     public Boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        return isTokenValid(extractAllClaims(token), userDetails);
+    }
+
+    public Boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        final String username = claims.getSubject();
+        return (username.equals(userDetails.getUsername()) && !isTokenExpired(claims));
     }
 }
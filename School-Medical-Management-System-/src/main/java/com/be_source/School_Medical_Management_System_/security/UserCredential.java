@@ -0,0 +1,13 @@
+package com.be_source.School_Medical_Management_System_.security;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// Chỉ các cột cần cho UserDetails, tránh hydrate cả entity User + Role
+@Data
+@AllArgsConstructor
+public class UserCredential {
+    private String email;
+    private String passwordHash;
+    private String roleName;
+}
@@ -1,6 +1,5 @@
 package com.be_source.School_Medical_Management_System_.security;
 
-import com.be_source.School_Medical_Management_System_.model.User;
 import com.be_source.School_Medical_Management_System_.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.*;
@@ -15,19 +14,21 @@ public class UserDetailsServiceImpl implements UserDetailsService {
     @Autowired
     private UserRepository userRepository;
 
+    // Dùng cho login và filter JWT: chỉ đọc email/password/role; entity User chỉ được load
+    // khi service cần (UserUtilService.getCurrentUser qua CurrentUserHolder)
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        User user = userRepository.findAll()
-                .stream()
-                .filter(u -> u.getEmail().equals(email))
-                .findFirst()
+        UserCredential credential = userRepository.findCredentialByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
 
+        return toUserDetails(credential.getEmail(), credential.getPasswordHash(), credential.getRoleName());
+    }
+
+    private UserDetails toUserDetails(String email, String passwordHash, String roleName) {
         return new org.springframework.security.core.userdetails.User(
-                user.getEmail(),
-                user.getPasswordHash(),
-                Collections.singleton(new SimpleGrantedAuthority("ROLE_" + user.getRole().getRoleName().toUpperCase()))
+                email,
+                passwordHash != null ? passwordHash : "",
+                Collections.singleton(new SimpleGrantedAuthority("ROLE_" + roleName.toUpperCase()))
         );
     }
 }
-
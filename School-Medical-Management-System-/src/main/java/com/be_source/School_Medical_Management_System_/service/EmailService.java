@@ -1,6 +1,13 @@
 package com.be_source.School_Medical_Management_System_.service;
 
+import com.be_source.School_Medical_Management_System_.request.OutgoingEmail;
+
+import java.util.List;
+import java.util.Map;
+
 public interface EmailService {
     void sendEmail(String to, String subject, String content);
-}
 
+    // Gửi cả batch trên một kết nối SMTP; trả về lỗi theo vị trí trong danh sách (rỗng nếu gửi hết)
+    Map<Integer, String> sendAll(List<OutgoingEmail> emails);
+}
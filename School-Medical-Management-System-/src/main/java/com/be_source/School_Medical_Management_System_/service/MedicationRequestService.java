@@ -1,9 +1,12 @@
 package com.be_source.School_Medical_Management_System_.service;
 
+import com.be_source.School_Medical_Management_System_.enums.ConfirmationStatus;
 import com.be_source.School_Medical_Management_System_.request.MedicationRequestRequest;
+import com.be_source.School_Medical_Management_System_.response.CursorPageResponse;
 import com.be_source.School_Medical_Management_System_.response.MedicationRequestResponse;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.time.LocalDate;
 import java.util.List;
 
 public interface MedicationRequestService {
@@ -14,6 +17,9 @@ public interface MedicationRequestService {
     List<MedicationRequestResponse> getHistoryByStudent(Long studentId);
     List<MedicationRequestResponse> getUnconfirmedRequests();
     List<MedicationRequestResponse> getAllRequests();
+    CursorPageResponse<MedicationRequestResponse> getNurseQueue(ConfirmationStatus status, String className,
+                                                                LocalDate fromDate, LocalDate toDate,
+                                                                Boolean sufficientStock, String cursor, int size);
     void confirmRequest(Long id);
     void unconfirmRequest(Long id, String reason);
 }
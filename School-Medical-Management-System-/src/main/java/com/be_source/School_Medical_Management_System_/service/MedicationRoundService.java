@@ -0,0 +1,17 @@
+package com.be_source.School_Medical_Management_System_.service;
+
+import com.be_source.School_Medical_Management_System_.enums.MedicationSlot;
+import com.be_source.School_Medical_Management_System_.response.MedicationRoundItemResponse;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+public interface MedicationRoundService {
+    int materialize(LocalDate date);
+    List<MedicationRoundItemResponse> getRound(LocalDate date, MedicationSlot slot, String className);
+    void onRequestConfirmed(Long requestId);
+    void onRequestUnconfirmed(Long requestId);
+    void recordDose(LocalDate date, LocalTime time, Long requestId, Long scheduleId, int quantity);
+    MedicationSlot slotOf(LocalTime time);
+}
@@ -1,8 +1,10 @@
 package com.be_source.School_Medical_Management_System_.service;
 
 import com.be_source.School_Medical_Management_System_.request.MedicationScheduleRequest;
+import com.be_source.School_Medical_Management_System_.response.CursorPageResponse;
 import com.be_source.School_Medical_Management_System_.response.MedicationScheduleResponse;
 
+import java.time.LocalDate;
 import java.util.List;
 
 public interface MedicationScheduleService {
@@ -11,6 +13,8 @@ public interface MedicationScheduleService {
     void delete(Long id);
     List<MedicationScheduleResponse> getAllForNurse();
     List<MedicationScheduleResponse> getForCurrentParentStudents();
+    CursorPageResponse<MedicationScheduleResponse> getForCurrentParentStudents(LocalDate fromDate, LocalDate toDate,
+                                                                               String cursor, int size);
     MedicationScheduleResponse getById(Long id);
 
 }
@@ -1,19 +1,30 @@
 package com.be_source.School_Medical_Management_System_.service;
 
 import com.be_source.School_Medical_Management_System_.request.NotificationRequest;
+import com.be_source.School_Medical_Management_System_.response.CursorPageResponse;
+import com.be_source.School_Medical_Management_System_.response.EmailDeliveryResponse;
 import com.be_source.School_Medical_Management_System_.response.NotificationResponse;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
 public interface NotificationService {
-    void createNotification(NotificationRequest request);
+    Long createNotification(NotificationRequest request);
     void updateNotification(Long id, NotificationRequest request);
     void deleteNotification(Long id);
     Page<NotificationResponse> getAllNotifications(Pageable pageable);
     Page<NotificationResponse> getNotificationsForCurrentUser(Pageable pageable);
+    CursorPageResponse<NotificationResponse> getAllNotifications(String cursor, int size, boolean includeTotal);
+    CursorPageResponse<NotificationResponse> getNotificationsForCurrentUser(String cursor, int size, boolean includeTotal);
+    CursorPageResponse<NotificationResponse> getNotificationHistoryForCurrentUser(String cursor, int size);
     void updateReadStatus(Long notificationId, boolean readStatus);
     void markAllAsReadForCurrentUser();
-    void createNotificationForNurses(NotificationRequest request);
+    long getUnreadCountForCurrentUser();
+    SseEmitter subscribeForCurrentUser(Long lastEventId);
+    Long createNotificationForNurses(NotificationRequest request);
+    Page<EmailDeliveryResponse> getDeadLetters(Pageable pageable);
+    void requeueDeadLetter(Long notificationId);
+    int requeueAllDeadLetters();
 }
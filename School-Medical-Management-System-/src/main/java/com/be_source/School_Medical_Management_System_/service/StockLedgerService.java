@@ -0,0 +1,14 @@
+package com.be_source.School_Medical_Management_System_.service;
+
+import com.be_source.School_Medical_Management_System_.enums.StockMovementType;
+import com.be_source.School_Medical_Management_System_.response.StockMovementResponse;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+
+public interface StockLedgerService {
+    void record(Long inventoryId, StockMovementType type, int quantity, Long scheduleId, Long createdBy);
+    Page<StockMovementResponse> getMovements(Long inventoryId, Pageable pageable);
+    int getBalanceAt(Long inventoryId, LocalDateTime at);
+}
@@ -15,6 +15,7 @@ public interface StudentService {
     void deleteStudent(Long id);
     StudentResponse getStudentByCode(String studentCode);
     List<StudentResponse> searchStudentsByCode(String keyword);
+    Page<StudentResponse> searchStudents(String keyword, Pageable pageable);
     StudentResponse confirmStudent(Long studentId);
     void rejectStudentByNurse(Long studentId, String reason);
 
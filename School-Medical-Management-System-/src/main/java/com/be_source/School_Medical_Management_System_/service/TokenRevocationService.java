@@ -0,0 +1,8 @@
+package com.be_source.School_Medical_Management_System_.service;
+
+import java.util.Date;
+
+public interface TokenRevocationService {
+    void revokeUser(String email);
+    boolean isRevoked(String email, Date issuedAt);
+}
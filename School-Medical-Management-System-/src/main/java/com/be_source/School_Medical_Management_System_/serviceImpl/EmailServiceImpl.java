@@ -1,31 +1,84 @@
 package com.be_source.School_Medical_Management_System_.serviceImpl;
 
+import com.be_source.School_Medical_Management_System_.request.OutgoingEmail;
 import com.be_source.School_Medical_Management_System_.service.EmailService;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class EmailServiceImpl implements EmailService {
 
     private final JavaMailSender javaMailSender;
 
     @Override
     public void sendEmail(String to, String subject, String content) {
-        MimeMessage mimeMessage = javaMailSender.createMimeMessage();
-
         try {
-            MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, true, "UTF-8");
-            helper.setTo(to);
-            helper.setSubject(subject);
-            helper.setText(content, true); // gửi HTML content
-            javaMailSender.send(mimeMessage);
+            javaMailSender.send(buildMessage(to, subject, content));
         } catch (MessagingException e) {
             throw new RuntimeException("Gửi email thất bại: " + e.getMessage());
         }
     }
+
+    @Override
+    public Map<Integer, String> sendAll(List<OutgoingEmail> emails) {
+        Map<Integer, String> failures = new HashMap<>();
+        if (emails.isEmpty()) return failures;
+
+        long start = System.nanoTime();
+        Map<MimeMessage, Integer> positions = new IdentityHashMap<>();
+        List<MimeMessage> messages = new ArrayList<>(emails.size());
+        for (int i = 0; i < emails.size(); i++) {
+            OutgoingEmail email = emails.get(i);
+            try {
+                MimeMessage message = buildMessage(email.getTo(), email.getSubject(), email.getContent());
+                positions.put(message, i);
+                messages.add(message);
+            } catch (MessagingException e) {
+                failures.put(i, "Gửi email thất bại: " + e.getMessage());
+            }
+        }
+
+        // JavaMailSenderImpl mở một Transport và gửi tuần tự cả mảng trên kết nối đó
+        try {
+            javaMailSender.send(messages.toArray(new MimeMessage[0]));
+        } catch (MailSendException e) {
+            e.getFailedMessages().forEach((message, cause) -> {
+                Integer position = positions.get(message);
+                if (position != null) failures.put(position, cause.getMessage());
+            });
+            if (e.getFailedMessages().isEmpty()) {
+                positions.values().forEach(position -> failures.put(position, e.getMessage()));
+            }
+        } catch (MailException e) {
+            positions.values().forEach(position -> failures.put(position, e.getMessage()));
+        }
+
+        log.info("SMTP batch: {} messages, {} failed, {} ms",
+                emails.size(), failures.size(), (System.nanoTime() - start) / 1_000_000);
+        return failures;
+    }
+
+    private MimeMessage buildMessage(String to, String subject, String content) throws MessagingException {
+        MimeMessage mimeMessage = javaMailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, true, "UTF-8");
+        helper.setTo(to);
+        helper.setSubject(subject);
+        helper.setText(content, true); // gửi HTML content
+        return mimeMessage;
+    }
 }
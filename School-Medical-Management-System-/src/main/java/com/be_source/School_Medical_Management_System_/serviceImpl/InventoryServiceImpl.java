@@ -1,6 +1,6 @@
 package com.be_source.School_Medical_Management_System_.serviceImpl;
 
-import com.be_source.School_Medical_Management_System_.model.MedicationRequest;
+import com.be_source.School_Medical_Management_System_.enums.StockMovementType;
 import com.be_source.School_Medical_Management_System_.repository.MedicationRequestRepository;
 import com.be_source.School_Medical_Management_System_.request.InventoryRequest;
 import com.be_source.School_Medical_Management_System_.response.InventoryResponse;
@@ -10,11 +10,14 @@ import com.be_source.School_Medical_Management_System_.model.MedicalItem;
 import com.be_source.School_Medical_Management_System_.repository.InventoryRepository;
 import com.be_source.School_Medical_Management_System_.repository.MedicalItemRepository;
 import com.be_source.School_Medical_Management_System_.service.InventoryService;
+import com.be_source.School_Medical_Management_System_.service.StockLedgerService;
+import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -29,7 +32,17 @@ public class InventoryServiceImpl implements InventoryService {
     @Autowired
     private MedicationRequestRepository medicationRequestRepository;
 
+    @Autowired
+    private StockLedgerService stockLedgerService;
+
+    @Autowired
+    private UserUtilService userUtilService;
+
+    @Autowired
+    private MedicalCatalogCache catalogCache;
+
     @Override
+    @Transactional
     public InventoryResponse add(InventoryRequest request) {
         MedicalItem item = medicalItemRepository.findById(request.getItemId())
                 .orElseThrow(() -> new RuntimeException("Item not found"));
@@ -37,68 +50,90 @@ public class InventoryServiceImpl implements InventoryService {
         Inventory inventory = inventoryRepository.findByMedicalItem(item).orElse(null);
 
         if (inventory == null) {
-            inventory = Inventory.builder()
+            inventory = inventoryRepository.save(Inventory.builder()
                     .medicalItem(item)
                     .totalQuantity(request.getTotalQuantity())
                     .updatedAt(LocalDateTime.now())
-                    .build();
+                    .build());
+            catalogCache.invalidate();
         } else {
-            inventory.setTotalQuantity(inventory.getTotalQuantity() + request.getTotalQuantity());
-            inventory.setUpdatedAt(LocalDateTime.now());
+            inventoryRepository.incrementStock(inventory.getInventoryId(), request.getTotalQuantity());
+            catalogCache.onStockChanged();
         }
+        stockLedgerService.record(inventory.getInventoryId(), StockMovementType.RECEIPT,
+                request.getTotalQuantity(), null, userUtilService.getCurrentUser().getUserId());
 
-        Inventory saved = inventoryRepository.save(inventory);
+        int available = inventoryRepository.findTotalQuantity(inventory.getInventoryId());
 
         // ✅ Cập nhật lại các MedicationRequest liên quan
-        updateMedicationRequestStockStatus(saved);
+        medicationRequestRepository.refreshSufficientStock(inventory.getInventoryId());
 
-        return toResponse(saved);
+        return toResponse(inventory, available);
     }
 
     @Override
+    @Transactional
     public InventoryResponse update(Long id, InventoryRequest request) {
         Inventory existing = inventoryRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Inventory not found"));
 
         int quantityToSubtract = request.getTotalQuantity();
-        int current = existing.getTotalQuantity();
 
-        if (quantityToSubtract > current) {
+        if (inventoryRepository.decrementStock(id, quantityToSubtract) == 0) {
             throw new RuntimeException("Không đủ số lượng trong kho để xuất");
         }
+        stockLedgerService.record(id, StockMovementType.ADJUSTMENT, -quantityToSubtract,
+                null, userUtilService.getCurrentUser().getUserId());
+        catalogCache.onStockChanged();
 
-        existing.setTotalQuantity(current - quantityToSubtract);
-        existing.setUpdatedAt(LocalDateTime.now());
-
-        Inventory saved = inventoryRepository.save(existing);
+        int available = inventoryRepository.findTotalQuantity(id);
 
         // ✅ Cập nhật lại các MedicationRequest liên quan
-        updateMedicationRequestStockStatus(saved);
+        medicationRequestRepository.refreshSufficientStock(id);
 
-        return toResponse(saved);
+        return toResponse(existing, available);
     }
 
     @Override
     public void delete(Long id) {
         inventoryRepository.deleteById(id);
+        catalogCache.invalidate();
     }
 
     @Override
     public List<InventoryResponse> getAll() {
-        return inventoryRepository.findAll().stream()
-                .map(this::toResponse)
-                .collect(Collectors.toList());
+        return fromCatalog(catalogCache.all());
     }
 
     @Override
     public List<InventoryResponse> searchByItemName(String keyword) {
-        List<Inventory> inventories = inventoryRepository.searchByItemName(keyword);
-        return inventories.stream()
-                .map(this::toResponse)
+        // Tìm theo tên thuốc đã bỏ dấu trong catalog cache, có xếp hạng
+        return fromCatalog(catalogCache.search(keyword, false));
+    }
+
+    // Thuộc tính thuốc lấy từ cache; số lượng lấy theo chế độ của cache (live: một query cho toàn bộ inventory)
+    private List<InventoryResponse> fromCatalog(List<MedicalCatalogCache.CatalogEntry> catalogEntries) {
+        List<MedicalCatalogCache.CatalogEntry> entries = catalogEntries.stream()
+                .filter(e -> e.inventoryId() != null)
+                .collect(Collectors.toList());
+        if (entries.isEmpty()) return List.of();
+
+        Map<Long, MedicalCatalogCache.StockLevel> stock = catalogCache.stockLevels();
+        return entries.stream()
+                .map(e -> {
+                    MedicalCatalogCache.StockLevel level = stock.get(e.inventoryId());
+                    return InventoryResponse.builder()
+                            .inventoryId(e.inventoryId())
+                            .item(catalogCache.itemResponse(e))
+                            .totalQuantity(level != null ? level.totalQuantity() : e.totalQuantity())
+                            .updatedAt(level != null ? level.updatedAt() : e.inventoryUpdatedAt())
+                            .build();
+                })
                 .collect(Collectors.toList());
     }
 
-    private InventoryResponse toResponse(Inventory inventory) {
+    // `available` là tồn đọc lại từ DB sau UPDATE nguyên tử (entity trong bộ nhớ có thể đã cũ)
+    private InventoryResponse toResponse(Inventory inventory, Integer available) {
         MedicalItem item = inventory.getMedicalItem();
 
         MedicalItemResponse itemResponse = MedicalItemResponse.builder()
@@ -116,24 +151,8 @@ public class InventoryServiceImpl implements InventoryService {
         return InventoryResponse.builder()
                 .inventoryId(inventory.getInventoryId())
                 .item(itemResponse)
-                .totalQuantity(inventory.getTotalQuantity())
+                .totalQuantity(available)
                 .updatedAt(inventory.getUpdatedAt())
                 .build();
     }
-
-    // ✅ Hàm cập nhật trạng thái đủ/thiếu thuốc cho các MedicationRequest liên quan
-    private void updateMedicationRequestStockStatus(Inventory inventory) {
-        List<MedicationRequest> requests = medicationRequestRepository.findByInventory(inventory);
-
-        for (MedicationRequest request : requests) {
-            Integer reqQty = request.getTotalQuantity();
-            Integer available = inventory.getTotalQuantity();
-
-            boolean sufficient = reqQty != null && available != null && available >= reqQty;
-            request.setIsSufficientStock(sufficient);
-        }
-
-        medicationRequestRepository.saveAll(requests);
-    }
 }
-
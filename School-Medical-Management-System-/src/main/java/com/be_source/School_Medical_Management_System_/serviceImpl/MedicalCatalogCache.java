@@ -0,0 +1,251 @@
+package com.be_source.School_Medical_Management_System_.serviceImpl;
+
+import com.be_source.School_Medical_Management_System_.model.Inventory;
+import com.be_source.School_Medical_Management_System_.model.MedicalItem;
+import com.be_source.School_Medical_Management_System_.repository.InventoryRepository;
+import com.be_source.School_Medical_Management_System_.repository.MedicalItemRepository;
+import com.be_source.School_Medical_Management_System_.response.CatalogCacheStatsResponse;
+import com.be_source.School_Medical_Management_System_.response.MedicalItemResponse;
+import com.be_source.School_Medical_Management_System_.util.NameNormalizer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Cache đọc-xuyên (read-through) cho danh mục thuốc/vật tư + inventory: cả danh mục nhỏ nên được nạp
+ * trọn một lần (2 query) và tra theo itemId / khóa tên chuẩn hóa trong bộ nhớ. Bị xóa khi có
+ * create/update/delete, và xóa lại sau commit để không giữ dữ liệu của transaction chưa commit.
+ * Việc xóa chỉ có hiệu lực trên instance đang chạy; khi chạy nhiều instance, bản nạp hết hạn sau
+ * catalog.cache.ttl-seconds nên các node khác thấy thay đổi chậm nhất sau khoảng đó.
+ * Với catalog.cache.live-quantities=true (mặc định) số lượng tồn luôn đọc từ DB, chỉ cache thuộc tính tĩnh.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MedicalCatalogCache {
+
+    private final MedicalItemRepository medicalItemRepository;
+    private final InventoryRepository inventoryRepository;
+
+    @Value("${catalog.cache.live-quantities:true}")
+    private boolean liveQuantities;
+
+    @Value("${catalog.cache.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    private volatile Snapshot snapshot;
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    // inventoryId/totalQuantity/inventoryUpdatedAt null nếu item chưa có inventory
+    public record CatalogEntry(MedicalItemResponse item, String nameKey, String descriptionKey, Long inventoryId,
+                               Integer totalQuantity, LocalDateTime inventoryUpdatedAt) {
+    }
+
+    public record StockLevel(Integer totalQuantity, LocalDateTime updatedAt) {
+    }
+
+    private record Snapshot(List<CatalogEntry> entries, Map<Long, CatalogEntry> byItemId,
+                            Map<String, CatalogEntry> byNameKey, long loadedAtNanos) {
+    }
+
+    // Theo thứ tự createdAt giảm dần như danh sách gốc
+    public List<CatalogEntry> all() {
+        return current().entries();
+    }
+
+    public Optional<CatalogEntry> byItemId(Long itemId) {
+        return Optional.ofNullable(current().byItemId().get(itemId));
+    }
+
+    public Optional<CatalogEntry> byNameKey(String nameKey) {
+        return nameKey == null ? Optional.empty() : Optional.ofNullable(current().byNameKey().get(nameKey));
+    }
+
+    // Tìm không phân biệt hoa/thường và dấu tiếng Việt; xếp hạng: tên bắt đầu bằng từ khóa, tên chứa từ khóa,
+    // rồi (nếu includeDescription) mô tả chứa từ khóa; cùng hạng giữ thứ tự createdAt giảm dần
+    public List<CatalogEntry> search(String keyword, boolean includeDescription) {
+        String q = NameNormalizer.normalize(keyword);
+        if (q == null) return List.of();
+        List<CatalogEntry> entries = current().entries();
+        List<CatalogEntry> ranked = new ArrayList<>();
+        int[] ranks = new int[entries.size()];
+        for (int i = 0; i < entries.size(); i++) {
+            CatalogEntry e = entries.get(i);
+            String name = e.nameKey() != null ? e.nameKey() : "";
+            int rank = name.startsWith(q) ? 0
+                    : name.contains(q) ? 1
+                    : includeDescription && e.descriptionKey() != null && e.descriptionKey().contains(q) ? 2
+                    : -1;
+            ranks[i] = rank;
+        }
+        for (int rank = 0; rank <= 2; rank++) {
+            for (int i = 0; i < entries.size(); i++) {
+                if (ranks[i] == rank) ranked.add(entries.get(i));
+            }
+        }
+        return ranked;
+    }
+
+    public Integer quantityOf(CatalogEntry entry) {
+        if (entry.inventoryId() == null) return null;
+        return liveQuantities ? inventoryRepository.findTotalQuantity(entry.inventoryId()) : entry.totalQuantity();
+    }
+
+    // Tồn kho cho cả danh sách: chế độ live đọc một query cho toàn bộ inventory
+    public Map<Long, StockLevel> stockLevels() {
+        Map<Long, StockLevel> result = new HashMap<>();
+        if (!liveQuantities) {
+            current().entries().stream()
+                    .filter(e -> e.inventoryId() != null)
+                    .forEach(e -> result.put(e.inventoryId(), new StockLevel(e.totalQuantity(), e.inventoryUpdatedAt())));
+            return result;
+        }
+        for (Object[] row : inventoryRepository.findAllStockLevels()) {
+            result.put((Long) row[0], new StockLevel((Integer) row[1], (LocalDateTime) row[2]));
+        }
+        return result;
+    }
+
+    // Bản sao để nơi gọi không sửa được dữ liệu trong cache
+    public MedicalItemResponse itemResponse(CatalogEntry entry) {
+        MedicalItemResponse item = entry.item();
+        return MedicalItemResponse.builder()
+                .itemId(item.getItemId())
+                .itemName(item.getItemName())
+                .category(item.getCategory())
+                .description(item.getDescription())
+                .manufacturer(item.getManufacturer())
+                .expiryDate(item.getExpiryDate())
+                .storageInstructions(item.getStorageInstructions())
+                .unit(item.getUnit())
+                .createdAt(item.getCreatedAt())
+                .build();
+    }
+
+    // Danh mục (item, liên kết inventory) thay đổi
+    public void invalidate() {
+        evict();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict();
+                }
+            });
+        }
+    }
+
+    // Số lượng tồn thay đổi: chỉ cần xóa cache khi đang cache cả số lượng
+    public void onStockChanged() {
+        if (!liveQuantities) invalidate();
+    }
+
+    public CatalogCacheStatsResponse stats() {
+        Snapshot s = snapshot;
+        return CatalogCacheStatsResponse.builder()
+                .hits(hits.sum())
+                .misses(misses.sum())
+                .loads(loads.sum())
+                .evictions(evictions.sum())
+                .expirations(expirations.sum())
+                .size(s != null ? s.entries().size() : 0)
+                .liveQuantities(liveQuantities)
+                .ttlSeconds(ttlSeconds)
+                .build();
+    }
+
+    private void evict() {
+        generation.incrementAndGet();
+        if (snapshot != null) {
+            snapshot = null;
+            evictions.increment();
+        }
+    }
+
+    private Snapshot current() {
+        Snapshot s = snapshot;
+        if (s != null && !expired(s)) {
+            hits.increment();
+            return s;
+        }
+        misses.increment();
+        synchronized (this) {
+            s = snapshot;
+            if (s != null && !expired(s)) return s;
+            if (s != null) expirations.increment();
+            long gen = generation.get();
+            Snapshot loaded = load();
+            // Có invalidate trong lúc nạp thì không giữ bản vừa nạp (có thể đã cũ)
+            if (generation.get() == gen) snapshot = loaded;
+            return loaded;
+        }
+    }
+
+    // ttl-seconds <= 0: không hết hạn (chỉ đúng khi chạy một instance)
+    private boolean expired(Snapshot s) {
+        return ttlSeconds > 0 && System.nanoTime() - s.loadedAtNanos() > TimeUnit.SECONDS.toNanos(ttlSeconds);
+    }
+
+    private Snapshot load() {
+        loads.increment();
+        long loadedAt = System.nanoTime();
+        List<MedicalItem> items = medicalItemRepository.findAll(Sort.by(Sort.Direction.DESC, "createdAt"));
+        Map<Long, Inventory> inventoryByItemId = inventoryRepository.findAllWithItem().stream()
+                .collect(Collectors.toMap(i -> i.getMedicalItem().getItemId(), Function.identity(), (a, b) -> a));
+
+        List<CatalogEntry> entries = new ArrayList<>(items.size());
+        Map<Long, CatalogEntry> byItemId = new HashMap<>();
+        Map<String, CatalogEntry> byNameKey = new HashMap<>();
+        for (MedicalItem item : items) {
+            Inventory inventory = inventoryByItemId.get(item.getItemId());
+            CatalogEntry entry = new CatalogEntry(
+                    toItemResponse(item),
+                    NameNormalizer.normalize(item.getItemName()),
+                    NameNormalizer.normalize(item.getDescription()),
+                    inventory != null ? inventory.getInventoryId() : null,
+                    inventory != null ? inventory.getTotalQuantity() : null,
+                    inventory != null ? inventory.getUpdatedAt() : null);
+            entries.add(entry);
+            byItemId.put(item.getItemId(), entry);
+            // Trùng khóa tên: giữ inventory có id nhỏ nhất để kết quả so khớp ổn định
+            if (entry.nameKey() != null && entry.inventoryId() != null) {
+                byNameKey.merge(entry.nameKey(), entry,
+                        (a, b) -> a.inventoryId() <= b.inventoryId() ? a : b);
+            }
+        }
+        log.debug("Loaded medical catalog: {} items", entries.size());
+        return new Snapshot(List.copyOf(entries), Map.copyOf(byItemId), Map.copyOf(byNameKey), loadedAt);
+    }
+
+    private MedicalItemResponse toItemResponse(MedicalItem item) {
+        return MedicalItemResponse.builder()
+                .itemId(item.getItemId())
+                .itemName(item.getItemName())
+                .category(item.getCategory())
+                .description(item.getDescription())
+                .manufacturer(item.getManufacturer())
+                .expiryDate(item.getExpiryDate())
+                .storageInstructions(item.getStorageInstructions())
+                .unit(item.getUnit())
+                .createdAt(item.getCreatedAt())
+                .build();
+    }
+}
@@ -9,9 +9,9 @@ import com.be_source.School_Medical_Management_System_.response.MedicalItemRespo
 import com.be_source.School_Medical_Management_System_.model.MedicalItem;
 import com.be_source.School_Medical_Management_System_.repository.MedicalItemRepository;
 import com.be_source.School_Medical_Management_System_.service.MedicalItemService;
+import com.be_source.School_Medical_Management_System_.util.NameNormalizer;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -29,8 +29,12 @@ public class MedicalItemServiceImpl implements MedicalItemService {
     @Autowired
     private MedicationRequestRepository medicationRequestRepository;
 
+    @Autowired
+    private MedicalCatalogCache catalogCache;
+
 
     @Override
+    @Transactional
     public MedicalItemResponse create(MedicalItemRequest request) {
         MedicalItem item = MedicalItem.builder()
                 .itemName(request.getItemName())
@@ -54,22 +58,9 @@ public class MedicalItemServiceImpl implements MedicalItemService {
             inventory = inventoryRepository.save(inventory);
         }
 
-// ✅ Biến dùng trong lambda phải là final
-        final Inventory finalInventory = inventory;
-
-        List<MedicationRequest> unmatchedRequests = medicationRequestRepository.findByInventoryIsNull();
-        List<MedicationRequest> toUpdate = unmatchedRequests.stream()
-                .filter(req -> req.getMedicationName() != null &&
-                        req.getMedicationName().equalsIgnoreCase(savedItem.getItemName()))
-                .peek(req -> {
-                    req.setInventory(finalInventory);
-                    boolean sufficient = finalInventory.getTotalQuantity() >=
-                            (req.getTotalQuantity() != null ? req.getTotalQuantity() : 0);
-                    req.setIsSufficientStock(sufficient);
-                })
-                .collect(Collectors.toList());
-
-        medicationRequestRepository.saveAll(toUpdate);
+        // ✅ Gán inventory cho các đơn thuốc chưa liên kết có cùng tên (so khớp theo khóa chuẩn hóa, có index)
+        medicationRequestRepository.linkOrphansByNameKey(inventory.getInventoryId(), savedItem.getNameKey());
+        catalogCache.invalidate();
 
         return toResponse(savedItem);
     }
@@ -78,6 +69,7 @@ public class MedicalItemServiceImpl implements MedicalItemService {
 
 
     @Override
+    @Transactional
     public MedicalItemResponse update(Long id, MedicalItemRequest request) {
         MedicalItem existing = medicalItemRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Item not found"));
@@ -99,29 +91,13 @@ public class MedicalItemServiceImpl implements MedicalItemService {
         Inventory inventory = inventoryRepository.findByMedicalItem(updated).orElse(null);
 
         // ✅ Trường hợp 1: Những request đang dùng inventory này nhưng tên thuốc KHÔNG còn khớp → xoá gán inventory
+        // ✅ Trường hợp 2: Những request chưa có inventory mà TÊN THUỐC MỚI khớp → gán inventory vào
         if (inventory != null) {
-            List<MedicationRequest> currentlyLinkedRequests = medicationRequestRepository.findByInventory(inventory);
-            for (MedicationRequest req : currentlyLinkedRequests) {
-                if (!req.getMedicationName().equalsIgnoreCase(updated.getItemName())) {
-                    req.setInventory(null);
-                    req.setIsSufficientStock(false);
-                }
-            }
-
-            // ✅ Trường hợp 2: Những request chưa có inventory mà TÊN THUỐC MỚI khớp → gán inventory vào
-            List<MedicationRequest> unlinkedMatchingRequests = medicationRequestRepository
-                    .findByMedicationNameIgnoreCaseAndInventoryIsNull(updated.getItemName());
-
-            for (MedicationRequest req : unlinkedMatchingRequests) {
-                req.setInventory(inventory);
-                boolean sufficient = inventory.getTotalQuantity() >= (req.getTotalQuantity() != null ? req.getTotalQuantity() : 0);
-                req.setIsSufficientStock(sufficient);
-            }
-
-            // Lưu lại tất cả request bị thay đổi
-            medicationRequestRepository.saveAll(currentlyLinkedRequests);
-            medicationRequestRepository.saveAll(unlinkedMatchingRequests);
+            String nameKey = NameNormalizer.normalize(updated.getItemName());
+            medicationRequestRepository.unlinkMismatchedNameKey(inventory.getInventoryId(), nameKey);
+            medicationRequestRepository.linkOrphansByNameKey(inventory.getInventoryId(), nameKey);
         }
+        catalogCache.invalidate();
 
         return toResponse(updated);
     }
@@ -153,29 +129,30 @@ public class MedicalItemServiceImpl implements MedicalItemService {
 
         // B3: Xoá MedicalItem
         medicalItemRepository.delete(item);
+        catalogCache.invalidate();
     }
 
 
 
     @Override
     public List<MedicalItemResponse> getAll() {
-        return medicalItemRepository.findAll(Sort.by(Sort.Direction.DESC, "createdAt")).stream()
-                .map(this::toResponse)
+        return catalogCache.all().stream()
+                .map(catalogCache::itemResponse)
                 .collect(Collectors.toList());
     }
 
 
     @Override
     public MedicalItemResponse getById(Long id) {
-        return medicalItemRepository.findById(id)
-                .map(this::toResponse)
+        return catalogCache.byItemId(id)
+                .map(catalogCache::itemResponse)
                 .orElseThrow(() -> new RuntimeException("Item not found"));
     }
     @Override
     public List<MedicalItemResponse> search(String keyword) {
-        List<MedicalItem> results = medicalItemRepository.searchByKeyword(keyword);
-        return results.stream()
-                .map(this::toResponse)
+        // Tìm trong catalog cache theo tên/mô tả đã bỏ dấu, có xếp hạng
+        return catalogCache.search(keyword, true).stream()
+                .map(catalogCache::itemResponse)
                 .collect(Collectors.toList());
     }
 
@@ -9,13 +9,18 @@ import com.be_source.School_Medical_Management_System_.repository.InventoryRepos
 import com.be_source.School_Medical_Management_System_.repository.MedicationRequestRepository;
 import com.be_source.School_Medical_Management_System_.repository.StudentRepository;
 import com.be_source.School_Medical_Management_System_.request.MedicationRequestRequest;
+import com.be_source.School_Medical_Management_System_.response.CursorPageResponse;
 import com.be_source.School_Medical_Management_System_.response.MedicationRequestResponse;
 import com.be_source.School_Medical_Management_System_.service.MedicationRequestService;
+import com.be_source.School_Medical_Management_System_.service.MedicationRoundService;
+import com.be_source.School_Medical_Management_System_.util.NameNormalizer;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -23,6 +28,10 @@ import java.util.stream.Collectors;
 @Service
 public class MedicationRequestServiceImpl implements MedicationRequestService {
 
+    private static final int MAX_QUEUE_PAGE_SIZE = 100;
+    // Cận trên cho trang đầu của query keyset
+    private static final LocalDateTime KEYSET_START = LocalDateTime.of(9999, 12, 31, 0, 0);
+
     @Autowired
     private MedicationRequestRepository medicationRequestRepository;
 
@@ -38,6 +47,12 @@ public class MedicationRequestServiceImpl implements MedicationRequestService {
     @Autowired
     private InventoryRepository inventoryRepository;
 
+    @Autowired
+    private MedicalCatalogCache catalogCache;
+
+    @Autowired
+    private MedicationRoundService roundService;
+
     @Override
     public List<MedicationRequestResponse> getMyRequests() {
         User parent = userUtilService.getCurrentUser();
@@ -66,15 +81,12 @@ public class MedicationRequestServiceImpl implements MedicationRequestService {
         entity.setNoonQuantity(request.getNoonQuantity());
         entity.setEveningQuantity(request.getEveningQuantity());
 
-        Inventory matchedInventory = inventoryRepository
-                .findByMedicalItem_ItemNameIgnoreCase(request.getMedicationName())
-                .orElse(null);
-        entity.setInventory(matchedInventory);
+        MedicalCatalogCache.CatalogEntry matched = findCatalogEntryByName(request.getMedicationName());
+        entity.setInventory(matched != null ? inventoryRepository.getReferenceById(matched.inventoryId()) : null);
 
-        if (matchedInventory != null && request.getTotalQuantity() != null) {
-            entity.setIsSufficientStock(
-                    matchedInventory.getTotalQuantity() >= request.getTotalQuantity()
-            );
+        Integer available = matched != null ? catalogCache.quantityOf(matched) : null;
+        if (available != null && request.getTotalQuantity() != null) {
+            entity.setIsSufficientStock(available >= request.getTotalQuantity());
         } else {
             entity.setIsSufficientStock(false);
         }
@@ -115,15 +127,12 @@ public class MedicationRequestServiceImpl implements MedicationRequestService {
         existing.setConfirmedAt(null);
         existing.setUnconfirmReason(null);
 
-        Inventory matchedInventory = inventoryRepository
-                .findByMedicalItem_ItemNameIgnoreCase(request.getMedicationName())
-                .orElse(null);
-        existing.setInventory(matchedInventory);
+        MedicalCatalogCache.CatalogEntry matched = findCatalogEntryByName(request.getMedicationName());
+        existing.setInventory(matched != null ? inventoryRepository.getReferenceById(matched.inventoryId()) : null);
 
-        if (matchedInventory != null && request.getTotalQuantity() != null) {
-            existing.setIsSufficientStock(
-                    matchedInventory.getTotalQuantity() >= request.getTotalQuantity()
-            );
+        Integer available = matched != null ? catalogCache.quantityOf(matched) : null;
+        if (available != null && request.getTotalQuantity() != null) {
+            existing.setIsSufficientStock(available >= request.getTotalQuantity());
         } else {
             existing.setIsSufficientStock(false);
         }
@@ -175,16 +184,43 @@ public class MedicationRequestServiceImpl implements MedicationRequestService {
 
     @Override
     public List<MedicationRequestResponse> getUnconfirmedRequests() {
-        return medicationRequestRepository.findByConfirmationStatusOrderByCreatedAtDesc(ConfirmationStatus.pending).stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return medicationRequestRepository.findNurseQueue(ConfirmationStatus.pending, null, null, null, null,
+                KEYSET_START, Long.MAX_VALUE, Pageable.unpaged());
     }
 
     @Override
     public List<MedicationRequestResponse> getAllRequests() {
-        return medicationRequestRepository.findAll(Sort.by(Sort.Direction.DESC, "createdAt")).stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return medicationRequestRepository.findNurseQueue(null, null, null, null, null,
+                KEYSET_START, Long.MAX_VALUE, Pageable.unpaged());
+    }
+
+    @Override
+    public CursorPageResponse<MedicationRequestResponse> getNurseQueue(ConfirmationStatus status, String className,
+                                                                       LocalDate fromDate, LocalDate toDate,
+                                                                       Boolean sufficientStock, String cursor, int size) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        if (after == null) after = new KeysetCursor(KEYSET_START, Long.MAX_VALUE);
+        int pageSize = Math.min(Math.max(size, 1), MAX_QUEUE_PAGE_SIZE);
+
+        // Lấy dư một dòng để biết còn trang sau; toDate tính trọn ngày
+        List<MedicationRequestResponse> rows = medicationRequestRepository.findNurseQueue(
+                status,
+                className != null && !className.isBlank() ? className : null,
+                fromDate != null ? fromDate.atStartOfDay() : null,
+                toDate != null ? toDate.plusDays(1).atStartOfDay() : null,
+                sufficientStock,
+                after.createdAt(), after.id(),
+                PageRequest.of(0, pageSize + 1));
+
+        boolean hasNext = rows.size() > pageSize;
+        List<MedicationRequestResponse> page = hasNext ? rows.subList(0, pageSize) : rows;
+        MedicationRequestResponse last = page.isEmpty() ? null : page.get(page.size() - 1);
+        return CursorPageResponse.<MedicationRequestResponse>builder()
+                .content(page)
+                .size(pageSize)
+                .hasNext(hasNext)
+                .nextCursor(hasNext ? new KeysetCursor(last.getCreatedAt(), last.getRequestId()).encode() : null)
+                .build();
     }
 
     @Override
@@ -207,6 +243,7 @@ public class MedicationRequestServiceImpl implements MedicationRequestService {
         request.setUnconfirmReason(null);
 
         medicationRequestRepository.save(request);
+        roundService.onRequestConfirmed(request.getRequestId());
     }
 
     @Override
@@ -217,6 +254,7 @@ public class MedicationRequestServiceImpl implements MedicationRequestService {
         request.setUnconfirmReason(reason);
         request.setConfirmedAt(null);
         medicationRequestRepository.save(request);
+        roundService.onRequestUnconfirmed(request.getRequestId());
     }
 
     private Students validateOwnership(Long studentId, User parent) {
@@ -228,9 +266,9 @@ public class MedicationRequestServiceImpl implements MedicationRequestService {
         return student;
     }
 
-    private Inventory findInventoryByName(String medicationName) {
-        return medicationName == null ? null :
-                inventoryRepository.findByMedicalItem_ItemNameIgnoreCase(medicationName).orElse(null);
+    // So khớp theo khóa chuẩn hóa (không phân biệt hoa/thường, dấu tiếng Việt, khoảng trắng thừa), tra trong catalog cache
+    private MedicalCatalogCache.CatalogEntry findCatalogEntryByName(String medicationName) {
+        return catalogCache.byNameKey(NameNormalizer.normalize(medicationName)).orElse(null);
     }
 
     private MedicationRequestResponse mapToResponse(MedicationRequest entity) {
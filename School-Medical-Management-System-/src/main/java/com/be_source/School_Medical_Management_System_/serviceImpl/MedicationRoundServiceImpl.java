@@ -0,0 +1,122 @@
+package com.be_source.School_Medical_Management_System_.serviceImpl;
+
+import com.be_source.School_Medical_Management_System_.enums.MedicationSlot;
+import com.be_source.School_Medical_Management_System_.model.MedicationRoundItem;
+import com.be_source.School_Medical_Management_System_.repository.MedicationRoundItemRepository;
+import com.be_source.School_Medical_Management_System_.response.MedicationRoundItemResponse;
+import com.be_source.School_Medical_Management_System_.service.MedicationRoundService;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class MedicationRoundServiceImpl implements MedicationRoundService {
+
+    private static final Pattern LEADING_NUMBER = Pattern.compile("^\\s*(\\d+)");
+
+    private final MedicationRoundItemRepository roundItemRepository;
+    private final MedicalCatalogCache catalogCache;
+
+    // Mốc giờ chia cữ khi ghi nhận một lần cho uống thuốc (HH:mm)
+    @Value("${medication.round.noon-from:10:30}")
+    private String noonFrom;
+
+    @Value("${medication.round.evening-from:15:00}")
+    private String eveningFrom;
+
+    @Override
+    @Transactional
+    public int materialize(LocalDate date) {
+        return roundItemRepository.materialize(date, 0L);
+    }
+
+    // Chỉ đọc bảng kế hoạch; ngày hôm nay chưa được job sinh (app khởi động sau giờ chạy job) thì sinh ngay lúc đọc
+    @Override
+    @Transactional
+    public List<MedicationRoundItemResponse> getRound(LocalDate date, MedicationSlot slot, String className) {
+        if (date.equals(LocalDate.now()) && !roundItemRepository.existsByRoundDate(date)) {
+            roundItemRepository.materialize(date, 0L);
+        }
+        List<MedicationRoundItem> items = roundItemRepository.findRound(date, slot,
+                className != null && !className.isBlank() ? className : null);
+
+        // Tồn kho lấy một lần cho cả danh sách (catalog cache)
+        Map<Long, MedicalCatalogCache.StockLevel> stock = catalogCache.stockLevels();
+        return items.stream()
+                .sorted(Comparator.comparing(MedicationRoundItem::getSlot))
+                .map(item -> toResponse(item, stock))
+                .collect(Collectors.toList());
+    }
+
+    // Đơn vừa được xác nhận: thêm các cữ của đơn vào kế hoạch hôm nay nếu kế hoạch đã được sinh
+    // (chưa sinh thì lần đọc đầu tiên sẽ sinh đủ cả đơn này)
+    @Override
+    @Transactional
+    public void onRequestConfirmed(Long requestId) {
+        LocalDate today = LocalDate.now();
+        if (roundItemRepository.existsByRoundDate(today)) {
+            roundItemRepository.materialize(today, requestId);
+        }
+    }
+
+    @Override
+    @Transactional
+    public void onRequestUnconfirmed(Long requestId) {
+        roundItemRepository.deletePending(requestId, LocalDate.now());
+    }
+
+    // Chạy trong transaction của MedicationScheduleService; lần cho uống ngoài kế hoạch thì không có dòng nào để cập nhật
+    @Override
+    public void recordDose(LocalDate date, LocalTime time, Long requestId, Long scheduleId, int quantity) {
+        if (date == null || time == null) return;
+        roundItemRepository.recordDose(date, requestId, slotOf(time).name(), scheduleId, quantity);
+    }
+
+    @Override
+    public MedicationSlot slotOf(LocalTime time) {
+        if (time.isBefore(LocalTime.parse(noonFrom))) return MedicationSlot.MORNING;
+        if (time.isBefore(LocalTime.parse(eveningFrom))) return MedicationSlot.NOON;
+        return MedicationSlot.EVENING;
+    }
+
+    private MedicationRoundItemResponse toResponse(MedicationRoundItem item,
+                                                   Map<Long, MedicalCatalogCache.StockLevel> stock) {
+        MedicalCatalogCache.StockLevel level = item.getInventoryId() != null ? stock.get(item.getInventoryId()) : null;
+        Integer available = level != null ? level.totalQuantity() : null;
+        return MedicationRoundItemResponse.builder()
+                .roundItemId(item.getRoundItemId())
+                .roundDate(item.getRoundDate())
+                .slot(item.getSlot())
+                .requestId(item.getRequestId())
+                .studentId(item.getStudentId())
+                .studentName(item.getStudentName())
+                .className(item.getClassName())
+                .medicationName(item.getMedicationName())
+                .plannedQuantity(item.getPlannedQuantity())
+                .dispensedQuantity(item.getDispensedQuantity())
+                .administered(item.getDispensedQuantity() != null && item.getDispensedQuantity() > 0)
+                .lastScheduleId(item.getLastScheduleId())
+                .administeredAt(item.getAdministeredAt())
+                .availableQuantity(available)
+                .sufficientStock(available != null && available >= plannedUnits(item.getPlannedQuantity()))
+                .build();
+    }
+
+    // Số lượng dự kiến là chữ tự do ("2", "1 viên"): lấy số đứng đầu, không đọc được thì cần ít nhất 1
+    private static int plannedUnits(String plannedQuantity) {
+        if (plannedQuantity == null) return 1;
+        Matcher m = LEADING_NUMBER.matcher(plannedQuantity);
+        return m.find() ? Math.max(Integer.parseInt(m.group(1)), 1) : 1;
+    }
+}
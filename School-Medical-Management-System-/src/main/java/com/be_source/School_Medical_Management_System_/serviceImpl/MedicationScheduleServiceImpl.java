@@ -1,30 +1,45 @@
 package com.be_source.School_Medical_Management_System_.serviceImpl;
 
-import com.be_source.School_Medical_Management_System_.enums.ConfirmationStatus;
+import com.be_source.School_Medical_Management_System_.enums.StockMovementType;
 import com.be_source.School_Medical_Management_System_.model.*;
 import com.be_source.School_Medical_Management_System_.repository.InventoryRepository;
 import com.be_source.School_Medical_Management_System_.repository.MedicationRequestRepository;
 import com.be_source.School_Medical_Management_System_.repository.MedicationScheduleRepository;
-import com.be_source.School_Medical_Management_System_.repository.StudentRepository;
 import com.be_source.School_Medical_Management_System_.request.MedicationScheduleRequest;
+import com.be_source.School_Medical_Management_System_.response.CursorPageResponse;
 import com.be_source.School_Medical_Management_System_.response.MedicationScheduleResponse;
+import com.be_source.School_Medical_Management_System_.service.MedicationRoundService;
 import com.be_source.School_Medical_Management_System_.service.MedicationScheduleService;
+import com.be_source.School_Medical_Management_System_.service.StockLedgerService;
+import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class MedicationScheduleServiceImpl implements MedicationScheduleService {
 
+    private static final int MAX_PAGE_SIZE = 100;
+    // Con trỏ trang đầu: lớn hơn mọi createdAt thực tế
+    private static final LocalDateTime KEYSET_START = LocalDateTime.of(9999, 12, 31, 0, 0);
+
     private final MedicationScheduleRepository scheduleRepository;
     private final MedicationRequestRepository requestRepository;
-    private final StudentRepository studentRepository;
     private final UserUtilService userUtilService;
     private final InventoryRepository inventoryRepository;
+    private final StockLedgerService stockLedgerService;
+    private final MedicalCatalogCache catalogCache;
+    private final MedicationRoundService roundService;
 
     @Override
     public MedicationScheduleResponse getById(Long id) {
@@ -34,6 +49,7 @@ public class MedicationScheduleServiceImpl implements MedicationScheduleService
     }
 
     @Override
+    @Transactional
     public MedicationScheduleResponse create(MedicationScheduleRequest request) {
         MedicationRequest medicationRequest = requestRepository.findById(request.getRequestId())
                 .orElseThrow(() -> new RuntimeException("Medication request not found"));
@@ -44,24 +60,6 @@ public class MedicationScheduleServiceImpl implements MedicationScheduleService
         Inventory inventory = medicationRequest.getInventory();
         if (inventory == null) throw new RuntimeException("No inventory linked to this medication request");
 
-        if (inventory.getTotalQuantity() < dispensed)
-            throw new RuntimeException("Insufficient stock in inventory");
-
-        if (medicationRequest.getTotalQuantity() < dispensed)
-            throw new RuntimeException("Dispensed quantity exceeds remaining request quantity");
-
-        // Trừ kho và request
-        inventory.setTotalQuantity(inventory.getTotalQuantity() - dispensed);
-        medicationRequest.setTotalQuantity(medicationRequest.getTotalQuantity() - dispensed);
-        medicationRequest.setIsSufficientStock(inventory.getTotalQuantity() >= medicationRequest.getTotalQuantity());
-
-        // ✅ Cập nhật trạng thái confirmation
-        if (medicationRequest.getTotalQuantity() == 0) {
-            medicationRequest.setConfirmationStatus(ConfirmationStatus.done);
-        } else {
-            medicationRequest.setConfirmationStatus(ConfirmationStatus.in_progress);
-        }
-
         // Tạo schedule mới
         MedicationSchedule schedule = new MedicationSchedule();
         schedule.setRequest(medicationRequest);
@@ -71,13 +69,20 @@ public class MedicationScheduleServiceImpl implements MedicationScheduleService
         schedule.setNotes(request.getNotes());
         schedule.setDispensedQuantity(dispensed);
         schedule.setAdministeredBy(userUtilService.getCurrentUser());
+        MedicationSchedule saved = scheduleRepository.save(schedule);
 
-        inventoryRepository.save(inventory);
-        requestRepository.save(medicationRequest);
-        return mapToResponse(scheduleRepository.save(schedule));
+        // Trừ kho và request (trạng thái confirmation được tính lại trong câu UPDATE); thiếu hàng thì rollback cả schedule
+        dispense(medicationRequest, inventory, dispensed, saved);
+
+        // Đánh dấu cữ tương ứng trong kế hoạch phát thuốc của ngày
+        roundService.recordDose(saved.getScheduledDate(), saved.getScheduledTime(),
+                medicationRequest.getRequestId(), saved.getScheduleId(), dispensed);
+
+        return mapToResponse(saved);
     }
 
     @Override
+    @Transactional
     public MedicationScheduleResponse update(Long id, MedicationScheduleRequest request) {
         MedicationSchedule schedule = scheduleRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Schedule not found"));
@@ -93,27 +98,24 @@ public class MedicationScheduleServiceImpl implements MedicationScheduleService
 
         if (newQty <= 0) throw new RuntimeException("Dispensed quantity must be greater than 0");
 
-        // Hoàn lại số cũ
-        inventory.setTotalQuantity(inventory.getTotalQuantity() + oldQty);
-        medicationRequest.setTotalQuantity(medicationRequest.getTotalQuantity() + oldQty);
-
-        if (inventory.getTotalQuantity() < newQty)
-            throw new RuntimeException("Insufficient inventory stock");
-
-        if (medicationRequest.getTotalQuantity() < newQty)
-            throw new RuntimeException("Dispensed quantity exceeds medication request's available quantity");
-
-        // Trừ số mới
-        inventory.setTotalQuantity(inventory.getTotalQuantity() - newQty);
-        medicationRequest.setTotalQuantity(medicationRequest.getTotalQuantity() - newQty);
-        medicationRequest.setIsSufficientStock(inventory.getTotalQuantity() >= medicationRequest.getTotalQuantity());
-
-        // ✅ Cập nhật lại trạng thái confirmation
-        if (medicationRequest.getTotalQuantity() == 0) {
-            medicationRequest.setConfirmationStatus(ConfirmationStatus.done);
-        } else {
-            medicationRequest.setConfirmationStatus(ConfirmationStatus.in_progress);
+        // Hoàn lại số cũ cho đơn/kho cũ của schedule, rồi trừ số mới; lỗi ở bước sau sẽ rollback cả hai
+        MedicationRequest oldRequest = schedule.getRequest();
+        // Chuyển schedule sang kho khác: khóa cả hai kho theo id tăng dần trước khi hoàn/trừ,
+        // tránh deadlock với một update chuyển theo chiều ngược lại
+        Set<Long> inventoryIds = new TreeSet<>();
+        inventoryIds.add(inventory.getInventoryId());
+        if (oldRequest.getInventory() != null) inventoryIds.add(oldRequest.getInventory().getInventoryId());
+        inventoryRepository.lockAllInOrder(inventoryIds);
+
+        if (oldRequest.getInventory() != null) {
+            restore(oldRequest, oldRequest.getInventory(), oldQty, schedule);
         }
+        dispense(medicationRequest, inventory, newQty, schedule);
+
+        roundService.recordDose(schedule.getScheduledDate(), schedule.getScheduledTime(),
+                oldRequest.getRequestId(), schedule.getScheduleId(), -oldQty);
+        roundService.recordDose(request.getScheduledDate(), request.getScheduledTime(),
+                medicationRequest.getRequestId(), schedule.getScheduleId(), newQty);
 
         // Cập nhật schedule
         schedule.setRequest(medicationRequest);
@@ -124,12 +126,11 @@ public class MedicationScheduleServiceImpl implements MedicationScheduleService
         schedule.setDispensedQuantity(newQty);
         schedule.setAdministeredBy(userUtilService.getCurrentUser());
 
-        inventoryRepository.save(inventory);
-        requestRepository.save(medicationRequest);
         return mapToResponse(scheduleRepository.save(schedule));
     }
 
     @Override
+    @Transactional
     public void delete(Long id) {
         MedicationSchedule schedule = scheduleRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Schedule not found"));
@@ -137,26 +138,41 @@ public class MedicationScheduleServiceImpl implements MedicationScheduleService
         MedicationRequest medicationRequest = schedule.getRequest();
         Inventory inventory = medicationRequest.getInventory();
 
-        int qty = schedule.getDispensedQuantity();
         if (inventory != null) {
-            inventory.setTotalQuantity(inventory.getTotalQuantity() + qty);
-            medicationRequest.setTotalQuantity(medicationRequest.getTotalQuantity() + qty);
-            medicationRequest.setIsSufficientStock(inventory.getTotalQuantity() >= medicationRequest.getTotalQuantity());
-
-            // ✅ Cập nhật lại trạng thái nếu bị xoá
-            if (medicationRequest.getTotalQuantity() == 0) {
-                medicationRequest.setConfirmationStatus(ConfirmationStatus.done);
-            } else {
-                medicationRequest.setConfirmationStatus(ConfirmationStatus.in_progress);
-            }
-
-            inventoryRepository.save(inventory);
-            requestRepository.save(medicationRequest);
+            restore(medicationRequest, inventory, schedule.getDispensedQuantity(), schedule);
         }
+        roundService.recordDose(schedule.getScheduledDate(), schedule.getScheduledTime(),
+                medicationRequest.getRequestId(), schedule.getScheduleId(), -schedule.getDispensedQuantity());
 
         scheduleRepository.delete(schedule);
     }
 
+    // Cập nhật có điều kiện ngay trên DB thay vì đọc-sửa-ghi trong Java; luôn khóa inventory trước medication_requests.
+    // Mỗi biến động kho được ghi vào sổ cái cùng transaction.
+    private void dispense(MedicationRequest medicationRequest, Inventory inventory, int qty, MedicationSchedule schedule) {
+        if (inventoryRepository.decrementStock(inventory.getInventoryId(), qty) == 0)
+            throw new RuntimeException("Insufficient stock in inventory");
+
+        if (requestRepository.adjustRemainingQuantity(medicationRequest.getRequestId(), -qty) == 0)
+            throw new RuntimeException("Dispensed quantity exceeds remaining request quantity");
+        // Các đơn khác dùng chung inventory cũng phải thấy tồn mới
+        requestRepository.refreshSufficientStock(inventory.getInventoryId());
+
+        stockLedgerService.record(inventory.getInventoryId(), StockMovementType.DISPENSE, -qty,
+                schedule.getScheduleId(), userUtilService.getCurrentUser().getUserId());
+        catalogCache.onStockChanged();
+    }
+
+    private void restore(MedicationRequest medicationRequest, Inventory inventory, int qty, MedicationSchedule schedule) {
+        inventoryRepository.incrementStock(inventory.getInventoryId(), qty);
+        requestRepository.adjustRemainingQuantity(medicationRequest.getRequestId(), qty);
+        requestRepository.refreshSufficientStock(inventory.getInventoryId());
+
+        stockLedgerService.record(inventory.getInventoryId(), StockMovementType.REVERSAL, qty,
+                schedule.getScheduleId(), userUtilService.getCurrentUser().getUserId());
+        catalogCache.onStockChanged();
+    }
+
     @Override
     public List<MedicationScheduleResponse> getAllForNurse() {
         return scheduleRepository.findAll(Sort.by(Sort.Direction.DESC, "createdAt")).stream()
@@ -168,15 +184,31 @@ public class MedicationScheduleServiceImpl implements MedicationScheduleService
     @Override
     public List<MedicationScheduleResponse> getForCurrentParentStudents() {
         User parent = userUtilService.getCurrentUser();
-        List<Long> studentIds = studentRepository.findByParent(parent)
-                .stream()
-                .map(Students::getStudentId)
-                .collect(Collectors.toList());
+        return scheduleRepository.findForParent(parent.getUserId(), null, null,
+                KEYSET_START, Long.MAX_VALUE, Pageable.unpaged());
+    }
 
-        return scheduleRepository.findAll(Sort.by(Sort.Direction.DESC, "createdAt")).stream()
-                .filter(schedule -> studentIds.contains(schedule.getStudent().getStudentId()))
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+    @Override
+    public CursorPageResponse<MedicationScheduleResponse> getForCurrentParentStudents(LocalDate fromDate, LocalDate toDate,
+                                                                                      String cursor, int size) {
+        User parent = userUtilService.getCurrentUser();
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        if (after == null) after = new KeysetCursor(KEYSET_START, Long.MAX_VALUE);
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+
+        // Lấy dư một dòng để biết còn trang sau
+        List<MedicationScheduleResponse> rows = scheduleRepository.findForParent(parent.getUserId(), fromDate, toDate,
+                after.createdAt(), after.id(), PageRequest.of(0, pageSize + 1));
+
+        boolean hasNext = rows.size() > pageSize;
+        List<MedicationScheduleResponse> page = hasNext ? rows.subList(0, pageSize) : rows;
+        MedicationScheduleResponse last = page.isEmpty() ? null : page.get(page.size() - 1);
+        return CursorPageResponse.<MedicationScheduleResponse>builder()
+                .content(page)
+                .size(pageSize)
+                .hasNext(hasNext)
+                .nextCursor(hasNext ? new KeysetCursor(last.getCreatedAt(), last.getScheduleId()).encode() : null)
+                .build();
     }
 
 
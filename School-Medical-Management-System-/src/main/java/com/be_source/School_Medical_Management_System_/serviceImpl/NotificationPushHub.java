@@ -0,0 +1,124 @@
+package com.be_source.School_Medical_Management_System_.serviceImpl;
+
+import com.be_source.School_Medical_Management_System_.mapper.NotificationMapper;
+import com.be_source.School_Medical_Management_System_.model.Notification;
+import com.be_source.School_Medical_Management_System_.repository.NotificationRepository;
+import com.be_source.School_Medical_Management_System_.response.NotificationResponse;
+import com.be_source.School_Medical_Management_System_.util.TransactionHooks;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hub đẩy noti mới tới các kết nối SSE đang mở, theo user. Kết nối idle không giữ thread
+ * (servlet async), nên số kết nối chỉ tốn bộ nhớ cho SseEmitter.
+ * Client gửi lại header Last-Event-ID khi reconnect để nhận các noti bị lỡ.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationPushHub {
+
+    private static final int REPLAY_LIMIT = 100;
+    private static final int BROADCAST_LOOKUP_CHUNK = 1000;
+
+    private final NotificationRepository notificationRepository;
+
+    private final Map<Long, Set<SseEmitter>> emittersByUser = new ConcurrentHashMap<>();
+
+    @Value("${notification.sse.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    public SseEmitter subscribe(Long userId, Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Set<SseEmitter> emitters = emittersByUser.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet());
+        emitters.add(emitter);
+
+        Runnable remove = () -> removeEmitter(userId, emitter);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(e -> remove.run());
+
+        // Đăng ký trước rồi mới replay: có thể trùng noti nhưng không bị lỡ (client bỏ trùng theo id)
+        if (lastEventId != null) {
+            notificationRepository
+                    .findTop100ByUser_UserIdAndNotificationIdGreaterThanOrderByNotificationIdAsc(userId, lastEventId)
+                    .stream()
+                    .limit(REPLAY_LIMIT)
+                    .map(NotificationMapper::toResponse)
+                    .forEach(response -> send(userId, emitter, response));
+        }
+        return emitter;
+    }
+
+    public int connectionCount() {
+        return emittersByUser.values().stream().mapToInt(Set::size).sum();
+    }
+
+    // Đẩy noti sau khi transaction tạo noti commit
+    public void publish(Notification notification) {
+        if (notification.getUser() == null) return;
+        Long userId = notification.getUser().getUserId();
+        NotificationResponse response = NotificationMapper.toResponse(notification);
+        TransactionHooks.afterCommit(() -> publish(userId, response));
+    }
+
+    // Broadcast tạo bằng INSERT ... SELECT: chỉ tra các dòng của user đang kết nối
+    public void publishBroadcast(Long broadcastId) {
+        TransactionHooks.afterCommit(() -> {
+            List<Long> connected = new ArrayList<>(emittersByUser.keySet());
+            for (int from = 0; from < connected.size(); from += BROADCAST_LOOKUP_CHUNK) {
+                List<Long> userIds = connected.subList(from, Math.min(from + BROADCAST_LOOKUP_CHUNK, connected.size()));
+                notificationRepository.findByBroadcast_BroadcastIdAndUser_UserIdIn(broadcastId, userIds)
+                        .forEach(n -> publish(n.getUser().getUserId(), NotificationMapper.toResponse(n)));
+            }
+        });
+    }
+
+    @Scheduled(fixedRateString = "${notification.sse.heartbeat-ms:25000}")
+    public void heartbeat() {
+        emittersByUser.forEach((userId, emitters) -> emitters.forEach(emitter -> {
+            try {
+                emitter.send(SseEmitter.event().comment("heartbeat"));
+            } catch (IOException | IllegalStateException e) {
+                removeEmitter(userId, emitter);
+            }
+        }));
+    }
+
+    private void publish(Long userId, NotificationResponse response) {
+        Set<SseEmitter> emitters = emittersByUser.get(userId);
+        if (emitters == null) return;
+        emitters.forEach(emitter -> send(userId, emitter, response));
+    }
+
+    private void send(Long userId, SseEmitter emitter, NotificationResponse response) {
+        try {
+            emitter.send(SseEmitter.event()
+                    .id(String.valueOf(response.getNotificationId()))
+                    .name("notification")
+                    .data(response, MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Dropping SSE connection of user {}: {}", userId, e.getMessage());
+            removeEmitter(userId, emitter);
+        }
+    }
+
+    private void removeEmitter(Long userId, SseEmitter emitter) {
+        emittersByUser.computeIfPresent(userId, (id, emitters) -> {
+            emitters.remove(emitter);
+            return emitters.isEmpty() ? null : emitters;
+        });
+    }
+}
@@ -1,19 +1,28 @@
 package com.be_source.School_Medical_Management_System_.serviceImpl;
 
+import com.be_source.School_Medical_Management_System_.enums.EmailDeliveryStatus;
+import com.be_source.School_Medical_Management_System_.mapper.NotificationMapper;
+import com.be_source.School_Medical_Management_System_.model.Broadcast;
 import com.be_source.School_Medical_Management_System_.model.Notification;
 import com.be_source.School_Medical_Management_System_.model.User;
+import com.be_source.School_Medical_Management_System_.repository.BroadcastRepository;
+import com.be_source.School_Medical_Management_System_.repository.NotificationHistoryView;
 import com.be_source.School_Medical_Management_System_.repository.NotificationRepository;
-import com.be_source.School_Medical_Management_System_.repository.UserRepository;
 import com.be_source.School_Medical_Management_System_.request.NotificationRequest;
+import com.be_source.School_Medical_Management_System_.response.CursorPageResponse;
+import com.be_source.School_Medical_Management_System_.response.EmailDeliveryResponse;
 import com.be_source.School_Medical_Management_System_.response.NotificationResponse;
+import com.be_source.School_Medical_Management_System_.scheduler.NotificationDigestPolicy;
 import com.be_source.School_Medical_Management_System_.service.NotificationService;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDateTime;
 import java.time.ZoneId;
@@ -24,31 +33,25 @@ import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class NotificationServiceImpl implements NotificationService {
 
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+    // Cận trên cho trang đầu của query keyset native (timestamp PostgreSQL không nhận LocalDateTime.MAX)
+    private static final LocalDateTime KEYSET_START = LocalDateTime.of(9999, 12, 31, 0, 0);
+
     private final NotificationRepository notificationRepository;
-    private final UserRepository userRepository;
+    private final BroadcastRepository broadcastRepository;
     private final UserUtilService userUtilService;
+    private final NotificationDigestPolicy digestPolicy;
+    private final UnreadNotificationCounter unreadCounter;
+    private final NotificationPushHub pushHub;
 
     @Override
     @Transactional
-    public void createNotification(NotificationRequest request) {
+    public Long createNotification(NotificationRequest request) {
         User createdBy = userUtilService.getCurrentUser();
-        List<User> parents = userRepository.findByRoleName("Parent");
-
-        for (User parent : parents) {
-            Notification noti = new Notification();
-            noti.setTitle(request.getTitle());
-            noti.setContent(request.getContent());
-            noti.setCreatedBy(createdBy);
-            noti.setUser(parent);
-            noti.setCreatedAt(LocalDateTime.now());
-            noti.setReadStatus(false);
-            noti.setEmailSent(false);
-            noti.setNotificationType("CUSTOM_NOTIFICATION");
-
-            notificationRepository.save(noti);
-        }
+        return broadcastToRole("Parent", request, createdBy, "CUSTOM_NOTIFICATION");
     }
 
     @Override
@@ -63,11 +66,15 @@ public class NotificationServiceImpl implements NotificationService {
     }
 
     @Override
+    @Transactional
     public void deleteNotification(Long id) {
-        if (!notificationRepository.existsById(id)) {
-            throw new NoSuchElementException("Notification not found");
+        Notification notification = notificationRepository.findById(id)
+                .orElseThrow(() -> new NoSuchElementException("Notification not found"));
+        notificationRepository.delete(notification);
+
+        if (!Boolean.TRUE.equals(notification.getReadStatus()) && notification.getUser() != null) {
+            unreadCounter.add(notification.getUser().getUserId(), -1);
         }
-        notificationRepository.deleteById(id);
     }
 
     @Override
@@ -78,7 +85,7 @@ public class NotificationServiceImpl implements NotificationService {
                 Sort.by(Sort.Direction.DESC, "createdAt")
         );
         return notificationRepository.findAll(sortedPageable)
-                .map(this::toDto);
+                .map(NotificationMapper::toResponse);
     }
 
     @Override
@@ -92,7 +99,68 @@ public class NotificationServiceImpl implements NotificationService {
         );
 
         return notificationRepository.findByUser_UserId(user.getUserId(), sortedPageable)
-                .map(this::toDto);
+                .map(NotificationMapper::toResponse);
+    }
+
+    @Override
+    public CursorPageResponse<NotificationResponse> getAllNotifications(String cursor, int size, boolean includeTotal) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        Pageable limit = keysetLimit(size);
+        List<Notification> rows = after == null
+                ? notificationRepository.findAllFirstPage(limit)
+                : notificationRepository.findAllAfter(after.createdAt(), after.id(), limit);
+        return toCursorPage(rows, limit.getPageSize() - 1, includeTotal ? notificationRepository.count() : null);
+    }
+
+    @Override
+    public CursorPageResponse<NotificationResponse> getNotificationsForCurrentUser(String cursor, int size, boolean includeTotal) {
+        Long userId = userUtilService.getCurrentUser().getUserId();
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        Pageable limit = keysetLimit(size);
+        List<Notification> rows = after == null
+                ? notificationRepository.findInboxFirstPage(userId, limit)
+                : notificationRepository.findInboxAfter(userId, after.createdAt(), after.id(), limit);
+        return toCursorPage(rows, limit.getPageSize() - 1, includeTotal ? notificationRepository.countByUser_UserId(userId) : null);
+    }
+
+    // Inbox gồm cả noti đã lưu trữ; không đếm tổng vì phải quét cả hai bảng
+    @Override
+    public CursorPageResponse<NotificationResponse> getNotificationHistoryForCurrentUser(String cursor, int size) {
+        Long userId = userUtilService.getCurrentUser().getUserId();
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        if (after == null) after = new KeysetCursor(KEYSET_START, Long.MAX_VALUE);
+        int pageSize = keysetLimit(size).getPageSize() - 1;
+
+        List<NotificationHistoryView> rows = notificationRepository.findInboxWithHistoryAfter(
+                userId, after.createdAt(), after.id(), pageSize + 1);
+        boolean hasNext = rows.size() > pageSize;
+        List<NotificationHistoryView> page = hasNext ? rows.subList(0, pageSize) : rows;
+        NotificationHistoryView last = page.isEmpty() ? null : page.get(page.size() - 1);
+        return CursorPageResponse.<NotificationResponse>builder()
+                .content(page.stream().map(NotificationMapper::toResponse).collect(Collectors.toList()))
+                .size(pageSize)
+                .hasNext(hasNext)
+                .nextCursor(hasNext ? new KeysetCursor(last.getCreatedAt(), last.getNotificationId()).encode() : null)
+                .build();
+    }
+
+    // Lấy dư một dòng để biết còn trang sau mà không cần COUNT
+    private Pageable keysetLimit(int size) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_CURSOR_PAGE_SIZE);
+        return PageRequest.of(0, pageSize + 1);
+    }
+
+    private CursorPageResponse<NotificationResponse> toCursorPage(List<Notification> rows, int size, Long total) {
+        boolean hasNext = rows.size() > size;
+        List<Notification> page = hasNext ? rows.subList(0, size) : rows;
+        Notification last = page.isEmpty() ? null : page.get(page.size() - 1);
+        return CursorPageResponse.<NotificationResponse>builder()
+                .content(page.stream().map(NotificationMapper::toResponse).collect(Collectors.toList()))
+                .size(size)
+                .hasNext(hasNext)
+                .nextCursor(hasNext ? new KeysetCursor(last.getCreatedAt(), last.getNotificationId()).encode() : null)
+                .totalElements(total)
+                .build();
     }
 
     @Override
@@ -108,27 +176,36 @@ public class NotificationServiceImpl implements NotificationService {
             throw new SecurityException("You are not allowed to update this notification.");
         }
 
+        boolean wasRead = Boolean.TRUE.equals(notification.getReadStatus());
         notification.setReadStatus(readStatus);
         notificationRepository.save(notification);
+
+        if (wasRead != readStatus) {
+            unreadCounter.add(currentUser.getUserId(), readStatus ? -1 : 1);
+        }
     }
 
     @Override
     @Transactional
     public void markAllAsReadForCurrentUser() {
         User user = userUtilService.getCurrentUser();
-        List<Notification> notifications = notificationRepository.findByUser(user);
+        int updated = notificationRepository.markAllReadForUser(user.getUserId());
+        unreadCounter.add(user.getUserId(), -updated);
+    }
 
-        for (Notification n : notifications) {
-            if (!n.getReadStatus()) {
-                n.setReadStatus(true);
-            }
-        }
-        notificationRepository.saveAll(notifications);
+    @Override
+    public long getUnreadCountForCurrentUser() {
+        return unreadCounter.get(userUtilService.getCurrentUser().getUserId());
+    }
+
+    @Override
+    public SseEmitter subscribeForCurrentUser(Long lastEventId) {
+        return pushHub.subscribe(userUtilService.getCurrentUser().getUserId(), lastEventId);
     }
 
     @Override
     @Transactional
-    public void createNotificationForNurses(NotificationRequest request) {
+    public Long createNotificationForNurses(NotificationRequest request) {
         User principal = userUtilService.getCurrentUser();
 
         // Kiểm tra quyền Principal
@@ -136,38 +213,78 @@ public class NotificationServiceImpl implements NotificationService {
             throw new RuntimeException("Only Principal can send notifications to Nurses");
         }
 
-        List<User> nurses = userRepository.findByRoleName("Nurse");
+        return broadcastToRole("Nurse", request, principal, "INTERNAL_ANNOUNCEMENT");
+    }
 
-        for (User nurse : nurses) {
-            Notification noti = new Notification();
-            noti.setTitle(request.getTitle());
-            noti.setContent(request.getContent());
-            noti.setCreatedBy(principal);
-            noti.setUser(nurse);
-            noti.setCreatedAt(LocalDateTime.now());
-            noti.setReadStatus(false);
-            noti.setEmailSent(false);
-            noti.setNotificationType("INTERNAL_ANNOUNCEMENT");
+    @Override
+    public Page<EmailDeliveryResponse> getDeadLetters(Pageable pageable) {
+        Pageable sortedPageable = PageRequest.of(
+                pageable.getPageNumber(),
+                pageable.getPageSize(),
+                Sort.by(Sort.Direction.DESC, "nextAttemptAt")
+        );
+        return notificationRepository.findByEmailStatus(EmailDeliveryStatus.DEAD, sortedPageable)
+                .map(this::toDeliveryDto);
+    }
 
-            notificationRepository.save(noti);
+    @Override
+    @Transactional
+    public void requeueDeadLetter(Long notificationId) {
+        if (notificationRepository.requeueDeadEmail(notificationId) == 0) {
+            throw new NoSuchElementException("Dead-letter notification not found");
         }
     }
 
+    @Override
+    @Transactional
+    public int requeueAllDeadLetters() {
+        return notificationRepository.requeueAllDeadEmails();
+    }
+
+    // Lưu nội dung một lần vào Broadcast, rồi tạo dòng nhận cho mọi user của role bằng một round trip
+    private Long broadcastToRole(String roleName, NotificationRequest request, User createdBy, String type) {
+        long start = System.nanoTime();
+        LocalDateTime now = LocalDateTime.now();
 
+        Broadcast broadcast = new Broadcast();
+        broadcast.setTitle(request.getTitle());
+        broadcast.setContent(request.getContent());
+        broadcast.setCreatedBy(createdBy);
+        broadcast.setNotificationType(type);
+        broadcast.setTargetRole(roleName);
+        broadcast.setCreatedAt(now);
+        broadcast = broadcastRepository.save(broadcast);
 
+        List<Long> recipientIds = notificationRepository.insertForBroadcast(
+                broadcast.getBroadcastId(),
+                roleName,
+                createdBy.getUserId(),
+                now,
+                digestPolicy.firstAttemptAt(type, now),
+                type
+        );
+        int inserted = recipientIds.size();
+        broadcast.setRecipientCount(inserted);
+        unreadCounter.increment(recipientIds);
+        pushHub.publishBroadcast(broadcast.getBroadcastId());
 
-    private NotificationResponse toDto(Notification n) {
-        NotificationResponse dto = new NotificationResponse();
-        dto.setNotificationId(n.getNotificationId());
-        dto.setTitle(n.getTitle());
-        dto.setContent(n.getContent());
-        dto.setCreatedById(n.getCreatedBy() != null ? n.getCreatedBy().getUserId() : null);
-        dto.setUserId(n.getUser() != null ? n.getUser().getUserId() : null);
-        dto.setCreatedAt(n.getCreatedAt());
-        dto.setReadStatus(n.getReadStatus());
-        dto.setEmailSent(n.getEmailSent());
-        dto.setNotificationType(n.getNotificationType());
-        return dto;
+        log.info("Broadcast {} ({}) to {} {} recipients in {} ms",
+                broadcast.getBroadcastId(), type, inserted, roleName, (System.nanoTime() - start) / 1_000_000);
+        return broadcast.getBroadcastId();
     }
 
+    private EmailDeliveryResponse toDeliveryDto(Notification n) {
+        return EmailDeliveryResponse.builder()
+                .notificationId(n.getNotificationId())
+                .userId(n.getUser() != null ? n.getUser().getUserId() : null)
+                .email(n.getUser() != null ? n.getUser().getEmail() : null)
+                .title(n.resolveTitle())
+                .notificationType(n.getNotificationType())
+                .emailStatus(n.getEmailStatus())
+                .emailAttempts(n.getEmailAttempts())
+                .nextAttemptAt(n.getNextAttemptAt())
+                .lastEmailError(n.getLastEmailError())
+                .createdAt(n.getCreatedAt())
+                .build();
+    }
 }
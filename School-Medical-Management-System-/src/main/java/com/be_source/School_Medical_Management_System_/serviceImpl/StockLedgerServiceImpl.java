@@ -0,0 +1,74 @@
+package com.be_source.School_Medical_Management_System_.serviceImpl;
+
+import com.be_source.School_Medical_Management_System_.enums.StockMovementType;
+import com.be_source.School_Medical_Management_System_.model.InventoryBalanceSnapshot;
+import com.be_source.School_Medical_Management_System_.model.StockMovement;
+import com.be_source.School_Medical_Management_System_.repository.InventoryBalanceSnapshotRepository;
+import com.be_source.School_Medical_Management_System_.repository.InventoryRepository;
+import com.be_source.School_Medical_Management_System_.repository.StockMovementRepository;
+import com.be_source.School_Medical_Management_System_.response.StockMovementResponse;
+import com.be_source.School_Medical_Management_System_.service.StockLedgerService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+
+@Service
+@RequiredArgsConstructor
+public class StockLedgerServiceImpl implements StockLedgerService {
+
+    private final StockMovementRepository stockMovementRepository;
+    private final InventoryBalanceSnapshotRepository snapshotRepository;
+    private final InventoryRepository inventoryRepository;
+
+    // Ghi trong transaction của thao tác kho đang chạy: rollback thì movement cũng mất
+    @Override
+    public void record(Long inventoryId, StockMovementType type, int quantity, Long scheduleId, Long createdBy) {
+        stockMovementRepository.save(StockMovement.builder()
+                .inventoryId(inventoryId)
+                .movementType(type)
+                .quantity(quantity)
+                .scheduleId(scheduleId)
+                .createdBy(createdBy)
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+
+    @Override
+    public Page<StockMovementResponse> getMovements(Long inventoryId, Pageable pageable) {
+        return stockMovementRepository.findByInventoryIdOrderByMovementIdDesc(inventoryId, pageable)
+                .map(this::toResponse);
+    }
+
+    // Tồn tại thời điểm `at`: lấy mốc gần nhất phía sau (snapshot đã chốt, hoặc tồn hiện tại) rồi trừ ngược
+    // các biến động xảy ra sau `at`, nên chỉ quét ledger trong khoảng giữa hai mốc.
+    @Override
+    public int getBalanceAt(Long inventoryId, LocalDateTime at) {
+        Optional<InventoryBalanceSnapshot> snapshot =
+                snapshotRepository.findFirstByInventoryIdAndAsOfGreaterThanEqualOrderByAsOfAsc(inventoryId, at);
+        if (snapshot.isPresent()) {
+            InventoryBalanceSnapshot s = snapshot.get();
+            return (int) (s.getBalance() - stockMovementRepository.sumQuantityAfter(inventoryId, at, s.getLastMovementId()));
+        }
+
+        Integer current = inventoryRepository.findTotalQuantity(inventoryId);
+        if (current == null) throw new NoSuchElementException("Inventory not found");
+        return (int) (current - stockMovementRepository.sumQuantityAfter(inventoryId, at, Long.MAX_VALUE));
+    }
+
+    private StockMovementResponse toResponse(StockMovement m) {
+        return StockMovementResponse.builder()
+                .movementId(m.getMovementId())
+                .inventoryId(m.getInventoryId())
+                .movementType(m.getMovementType())
+                .quantity(m.getQuantity())
+                .scheduleId(m.getScheduleId())
+                .createdBy(m.getCreatedBy())
+                .createdAt(m.getCreatedAt())
+                .build();
+    }
+}
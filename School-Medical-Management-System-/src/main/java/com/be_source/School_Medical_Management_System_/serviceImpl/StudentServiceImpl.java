@@ -1,14 +1,18 @@
 package com.be_source.School_Medical_Management_System_.serviceImpl;
 
 import com.be_source.School_Medical_Management_System_.enums.ConfirmationStatus;
+import com.be_source.School_Medical_Management_System_.model.Health_Info;
 import com.be_source.School_Medical_Management_System_.model.Notification;
 import com.be_source.School_Medical_Management_System_.model.Students;
 import com.be_source.School_Medical_Management_System_.model.User;
+import com.be_source.School_Medical_Management_System_.repository.HealthInfoRepository;
 import com.be_source.School_Medical_Management_System_.repository.NotificationRepository;
 import com.be_source.School_Medical_Management_System_.repository.StudentRepository;
 import com.be_source.School_Medical_Management_System_.response.HealthInfoResponse;
 import com.be_source.School_Medical_Management_System_.response.StudentResponse;
+import com.be_source.School_Medical_Management_System_.scheduler.NotificationDigestPolicy;
 import com.be_source.School_Medical_Management_System_.service.StudentService;
+import com.be_source.School_Medical_Management_System_.util.NameNormalizer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.*;
 import org.springframework.stereotype.Service;
@@ -17,6 +21,7 @@ import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.stream.Collectors;
 
@@ -29,13 +34,26 @@ public class StudentServiceImpl implements StudentService {
     @Autowired
     private StudentRepository studentRepository;
 
+    @Autowired
+    private HealthInfoRepository healthInfoRepository;
+
     @Autowired
     private UserUtilService userUtilService;
 
+    @Autowired
+    private NotificationDigestPolicy digestPolicy;
+
+    @Autowired
+    private UnreadNotificationCounter unreadCounter;
+
+    @Autowired
+    private NotificationPushHub pushHub;
+
     @Override
     public Page<StudentResponse> getAllStudents(Pageable pageable) {
-        return studentRepository.findAll(pageable)
-                .map(this::toDto);
+        Page<Students> page = studentRepository.findAll(pageable);
+        Map<Long, List<Health_Info>> healthInfo = loadHealthInfo(page.getContent());
+        return page.map(s -> toDto(s, healthInfo));
     }
 
     @Override
@@ -48,9 +66,7 @@ public class StudentServiceImpl implements StudentService {
     @Override
     public List<StudentResponse> getStudentsByCurrentParent() {
         User currentUser = userUtilService.getCurrentUser();
-        return studentRepository.findByParent(currentUser).stream()
-                .map(this::toDto)
-                .collect(Collectors.toList());
+        return toDtos(studentRepository.findByParent(currentUser));
     }
 
     @Override
@@ -102,9 +118,20 @@ public class StudentServiceImpl implements StudentService {
 
     @Override
     public List<StudentResponse> searchStudentsByCode(String keyword) {
-        return studentRepository.findByStudentCodeContainingIgnoreCase(keyword).stream()
-                .map(this::toDto)
-                .collect(Collectors.toList());
+        return toDtos(studentRepository.findByStudentCodeContainingIgnoreCase(keyword));
+    }
+
+    @Override
+    public Page<StudentResponse> searchStudents(String keyword, Pageable pageable) {
+        String q = NameNormalizer.normalize(keyword);
+        if (q == null) return Page.empty(pageable);
+
+        // Ký tự đặc biệt của LIKE trong từ khóa được escape; thứ tự kết quả do query quyết định (bỏ Sort của client)
+        String pattern = "%" + q.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+        Page<Students> page = studentRepository.search(q, pattern,
+                PageRequest.of(pageable.getPageNumber(), pageable.getPageSize()));
+        Map<Long, List<Health_Info>> healthInfo = loadHealthInfo(page.getContent());
+        return page.map(s -> toDto(s, healthInfo));
     }
 
     @Override
@@ -128,8 +155,11 @@ public class StudentServiceImpl implements StudentService {
         notification.setCreatedAt(LocalDateTime.now());
         notification.setReadStatus(false);
         notification.setEmailSent(false);
+        notification.setNextAttemptAt(digestPolicy.firstAttemptAt("STUDENT_CONFIRMED", notification.getCreatedAt()));
 
         notificationRepository.save(notification);
+        unreadCounter.add(parent != null ? parent.getUserId() : null, 1);
+        pushHub.publish(notification);
 
         return toDto(savedStudent);
     }
@@ -156,13 +186,39 @@ public class StudentServiceImpl implements StudentService {
         notification.setCreatedAt(LocalDateTime.now());
         notification.setReadStatus(false);
         notification.setEmailSent(false);
+        notification.setNextAttemptAt(digestPolicy.firstAttemptAt("STUDENT_UNCONFIRMED", notification.getCreatedAt()));
 
         notificationRepository.save(notification);
+        unreadCounter.add(parent != null ? parent.getUserId() : null, 1);
+        pushHub.publish(notification);
     }
 
     // ============================ Mapping ============================
 
+    // Danh sách: health info của cả danh sách nạp bằng một query IN, không đi qua collection lazy của từng học sinh
+    private List<StudentResponse> toDtos(List<Students> students) {
+        Map<Long, List<Health_Info>> healthInfo = loadHealthInfo(students);
+        return students.stream()
+                .map(s -> toDto(s, healthInfo))
+                .collect(Collectors.toList());
+    }
+
+    private Map<Long, List<Health_Info>> loadHealthInfo(List<Students> students) {
+        if (students.isEmpty()) return Map.of();
+        List<Long> ids = students.stream().map(Students::getStudentId).collect(Collectors.toList());
+        return healthInfoRepository.findByStudentIds(ids).stream()
+                .collect(Collectors.groupingBy(h -> h.getStudent().getStudentId()));
+    }
+
+    private StudentResponse toDto(Students s, Map<Long, List<Health_Info>> healthInfo) {
+        return toDto(s, healthInfo.getOrDefault(s.getStudentId(), List.of()));
+    }
+
     private StudentResponse toDto(Students s) {
+        return toDto(s, s.getHealthInfoList());
+    }
+
+    private StudentResponse toDto(Students s, List<Health_Info> healthInfoList) {
         StudentResponse dto = new StudentResponse();
         dto.setStudentId(s.getStudentId());
         dto.setStudentCode(s.getStudentCode());
@@ -177,8 +233,8 @@ public class StudentServiceImpl implements StudentService {
         dto.setUpdatedAt(s.getUpdatedAt());
         dto.setConfirmationStatus(s.getConfirmationStatus());
 
-        if (s.getHealthInfoList() != null) {
-            List<HealthInfoResponse> healthDtos = s.getHealthInfoList().stream().map(hi -> {
+        if (healthInfoList != null) {
+            List<HealthInfoResponse> healthDtos = healthInfoList.stream().map(hi -> {
                 HealthInfoResponse h = new HealthInfoResponse();
                 h.setHealthInfoId(hi.getHealthInfoId());
                 h.setMedicalConditions(hi.getMedicalConditions());
@@ -0,0 +1,76 @@
+package com.be_source.School_Medical_Management_System_.serviceImpl;
+
+import com.be_source.School_Medical_Management_System_.model.TokenRevocation;
+import com.be_source.School_Medical_Management_System_.repository.TokenRevocationRepository;
+import com.be_source.School_Medical_Management_System_.security.JwtUtil;
+import com.be_source.School_Medical_Management_System_.service.TokenRevocationService;
+import jakarta.annotation.PostConstruct;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Denylist theo email: mọi token phát hành trước thời điểm thu hồi đều bị từ chối.
+ * Lưu trong bảng token_revocations để không mất khi restart và để các instance khác thấy;
+ * filter JWT chỉ đọc bản sao trong bộ nhớ, được nạp lúc khởi động và đồng bộ lại định kỳ.
+ * Entry chỉ cần giữ trong thời gian sống của token, sau đó các token cũ đã tự hết hạn.
+ */
+@Service
+@RequiredArgsConstructor
+public class TokenRevocationServiceImpl implements TokenRevocationService {
+
+    private final TokenRevocationRepository tokenRevocationRepository;
+
+    private final Map<String, Long> revokedAt = new ConcurrentHashMap<>();
+
+    @Override
+    @Transactional
+    public void revokeUser(String email) {
+        if (email == null) return;
+        long now = System.currentTimeMillis();
+        tokenRevocationRepository.upsert(email, toLocal(now), toLocal(now + JwtUtil.TOKEN_VALIDITY_MS));
+        revokedAt.merge(email, now, Math::max);
+    }
+
+    @Override
+    public boolean isRevoked(String email, Date issuedAt) {
+        Long revokedMillis = revokedAt.get(email);
+        if (revokedMillis == null) return false;
+        // iat chỉ chính xác tới giây nên token cùng giây với lúc thu hồi cũng bị từ chối
+        return issuedAt == null || issuedAt.getTime() <= revokedMillis;
+    }
+
+    // Gộp (không thay thế) để không làm mất lần thu hồi vừa ghi trên instance này trong lúc đang đọc
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${security.revocation.refresh-ms:30000}",
+            initialDelayString = "${security.revocation.refresh-ms:30000}")
+    public void refresh() {
+        for (TokenRevocation revocation : tokenRevocationRepository.findByExpiresAtAfter(LocalDateTime.now())) {
+            revokedAt.merge(revocation.getEmail(), toMillis(revocation.getRevokedAt()), Math::max);
+        }
+    }
+
+    @Scheduled(fixedRate = 60 * 60 * 1000) // mỗi giờ
+    @Transactional
+    public void purgeExpiredEntries() {
+        long cutoff = System.currentTimeMillis() - JwtUtil.TOKEN_VALIDITY_MS;
+        revokedAt.values().removeIf(revokedMillis -> revokedMillis < cutoff);
+        tokenRevocationRepository.deleteExpired(LocalDateTime.now());
+    }
+
+    private static LocalDateTime toLocal(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,95 @@
+package com.be_source.School_Medical_Management_System_.serviceImpl;
+
+import com.be_source.School_Medical_Management_System_.repository.NotificationRepository;
+import com.be_source.School_Medical_Management_System_.util.TransactionHooks;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Bộ đếm noti chưa đọc theo user, giữ trong bộ nhớ để endpoint unread-count không phải đụng bảng notifications.
+ * Dựng lại từ DB khi khởi động và định kỳ (đồng bộ các thay đổi từ node khác / ghi trực tiếp vào DB).
+ * Khi đang trong transaction, thay đổi chỉ được áp dụng sau commit.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UnreadNotificationCounter {
+
+    private final NotificationRepository notificationRepository;
+
+    // Rebuild thay cả map một lần; cộng delta giữ read lock nên không rơi vào map cũ lúc đang thay
+    private final ReentrantReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private volatile Map<Long, LongAdder> unreadByUser = new ConcurrentHashMap<>();
+    // Delta đã commit trong lúc rebuild đang đọc DB, phát lại lên map mới; null khi không rebuild
+    private volatile Queue<Delta> pendingDuringRebuild;
+
+    public long get(Long userId) {
+        LongAdder adder = unreadByUser.get(userId);
+        return adder != null ? Math.max(adder.sum(), 0) : 0;
+    }
+
+    public void add(Long userId, long delta) {
+        if (userId == null || delta == 0) return;
+        TransactionHooks.afterCommit(() -> apply(userId, delta));
+    }
+
+    public void increment(Collection<Long> userIds) {
+        if (userIds.isEmpty()) return;
+        TransactionHooks.afterCommit(() -> userIds.forEach(userId -> apply(userId, 1)));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${notification.unread-counter.resync-ms:600000}",
+            initialDelayString = "${notification.unread-counter.resync-ms:600000}")
+    public synchronized void rebuild() {
+        // Bắt đầu ghi delta trước khi chụp DB: mọi commit sau snapshot đều được phát lại
+        pendingDuringRebuild = new ConcurrentLinkedQueue<>();
+        try {
+            Map<Long, LongAdder> rebuilt = new ConcurrentHashMap<>();
+            for (Object[] row : notificationRepository.countUnreadGroupByUser()) {
+                LongAdder adder = new LongAdder();
+                adder.add(((Number) row[1]).longValue());
+                rebuilt.put(((Number) row[0]).longValue(), adder);
+            }
+
+            swapLock.writeLock().lock();
+            try {
+                for (Delta delta : pendingDuringRebuild) {
+                    rebuilt.computeIfAbsent(delta.userId(), id -> new LongAdder()).add(delta.amount());
+                }
+                unreadByUser = rebuilt;
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+            log.info("Unread notification counters rebuilt for {} users", rebuilt.size());
+        } finally {
+            pendingDuringRebuild = null;
+        }
+    }
+
+    private void apply(Long userId, long amount) {
+        swapLock.readLock().lock();
+        try {
+            unreadByUser.computeIfAbsent(userId, id -> new LongAdder()).add(amount);
+            Queue<Delta> pending = pendingDuringRebuild;
+            if (pending != null) pending.add(new Delta(userId, amount));
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    private record Delta(Long userId, long amount) {
+    }
+}
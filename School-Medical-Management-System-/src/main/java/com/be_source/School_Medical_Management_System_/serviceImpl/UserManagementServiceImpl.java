@@ -7,6 +7,7 @@ import com.be_source.School_Medical_Management_System_.repository.UserRepository
 import com.be_source.School_Medical_Management_System_.request.CreateUserRequest;
 import com.be_source.School_Medical_Management_System_.request.UpdateUserRequest;
 import com.be_source.School_Medical_Management_System_.response.UserManagementResponse;
+import com.be_source.School_Medical_Management_System_.service.TokenRevocationService;
 import com.be_source.School_Medical_Management_System_.service.UserManagementService;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
@@ -24,6 +25,7 @@ public class UserManagementServiceImpl implements UserManagementService {
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
     private final PasswordEncoder passwordEncoder;
+    private final TokenRevocationService tokenRevocationService;
 
     @Override
     @Transactional
@@ -61,6 +63,12 @@ public class UserManagementServiceImpl implements UserManagementService {
         Role role = roleRepository.findByRoleName(request.getRoleName())
                 .orElseThrow(() -> new RuntimeException("Role not found"));
 
+        // Token cũ mang email/role cũ trong claim nên phải thu hồi
+        if (!user.getEmail().equals(request.getEmail())
+                || !user.getRole().getRoleName().equals(role.getRoleName())) {
+            tokenRevocationService.revokeUser(user.getEmail());
+        }
+
         user.setEmail(request.getEmail());
         user.setPhone(request.getPhone());
         user.setFullName(request.getFullName());
@@ -71,9 +79,10 @@ public class UserManagementServiceImpl implements UserManagementService {
 
     @Override
     public void deleteUser(Long userId) {
-        if (!userRepository.existsById(userId))
-            throw new RuntimeException("User not found");
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
         userRepository.deleteById(userId);
+        tokenRevocationService.revokeUser(user.getEmail());
     }
 
     @Override
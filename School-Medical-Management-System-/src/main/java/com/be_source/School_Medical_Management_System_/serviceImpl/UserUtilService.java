@@ -2,6 +2,7 @@ package com.be_source.School_Medical_Management_System_.serviceImpl;
 
 import com.be_source.School_Medical_Management_System_.model.User;
 import com.be_source.School_Medical_Management_System_.repository.UserRepository;
+import com.be_source.School_Medical_Management_System_.security.CurrentUserHolder;
 import com.be_source.School_Medical_Management_System_.security.JwtUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
@@ -36,7 +37,7 @@ public class UserUtilService {
             email = principal.toString();
         }
 
-        return userRepository.findByEmail(email)
+        return CurrentUserHolder.resolve(email, userRepository::findWithRoleByEmail)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
     }
 }
@@ -0,0 +1,27 @@
+package com.be_source.School_Medical_Management_System_.util;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Khóa so khớp tên thuốc: bỏ dấu tiếng Việt (kể cả đ/Đ), chữ thường, gộp khoảng trắng.
+ * "  Paracetamol  500mg" và "paracetamol 500MG" cho cùng một khóa; "Thuốc ho Bổ Phế" -> "thuoc ho bo phe".
+ */
+public final class NameNormalizer {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private NameNormalizer() {
+    }
+
+    public static String normalize(String name) {
+        if (name == null) return null;
+        String stripped = COMBINING_MARKS.matcher(Normalizer.normalize(name, Normalizer.Form.NFD)).replaceAll("")
+                .replace('đ', 'd')
+                .replace('Đ', 'D');
+        String key = WHITESPACE.matcher(stripped.toLowerCase(Locale.ROOT).trim()).replaceAll(" ");
+        return key.isEmpty() ? null : key;
+    }
+}
@@ -0,0 +1,27 @@
+package com.be_source.School_Medical_Management_System_.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Hoãn một tác vụ trong bộ nhớ (đếm noti, đẩy SSE...) tới sau khi transaction hiện tại commit;
+ * rollback thì bỏ qua. Ngoài transaction thì chạy ngay.
+ */
+public final class TransactionHooks {
+
+    private TransactionHooks() {
+    }
+
+    public static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,5 @@
+-- Sổ kho: lịch sử movement theo inventory (mới nhất trước) và cộng dồn sau snapshot
+CREATE INDEX IF NOT EXISTS idx_stock_movements_inventory ON stock_movements (inventory_id, movement_id);
+
+-- Snapshot tồn gần nhất của một inventory tại một thời điểm
+CREATE INDEX IF NOT EXISTS idx_balance_snapshots_inventory ON inventory_balance_snapshots (inventory_id, as_of);
@@ -0,0 +1,9 @@
+-- MedicationRoundJob sinh kế hoạch bằng INSERT ... ON CONFLICT (round_date, request_id, slot) DO NOTHING:
+-- thiếu unique index này thì câu lệnh lỗi và job không còn idempotent.
+-- Bảng tạo từ @UniqueConstraint cũ đã có index cùng tên nên câu lệnh được bỏ qua.
+CREATE UNIQUE INDEX IF NOT EXISTS uk_medication_round_items_day_request_slot
+    ON medication_round_items (round_date, request_id, slot);
+
+-- Màn hình phát thuốc đọc theo (ngày, cữ) rồi sắp theo lớp, tên học sinh
+CREATE INDEX IF NOT EXISTS idx_medication_round_items_day
+    ON medication_round_items (round_date, slot, class_name, student_name);
@@ -0,0 +1,244 @@
+-- Lược đồ gốc (trước khi có Flyway), sinh từ các entity ban đầu; DB cũ đã có sẵn các bảng này được baseline ở version 1
+
+    create table event_signups (
+        event_id bigint not null,
+        signup_date timestamp(6),
+        signup_id bigint generated by default as identity,
+        student_id bigint not null,
+        status varchar(255) check (status in ('PENDING','APPROVED','REJECTED')),
+        primary key (signup_id),
+        unique (student_id, event_id)
+    );
+
+    create table health_events (
+        schedule_date date,
+        created_at timestamp(6),
+        created_by bigint,
+        event_id bigint generated by default as identity,
+        category varchar(255),
+        description TEXT,
+        title varchar(255),
+        primary key (event_id)
+    );
+
+    create table health_incidents (
+        incident_date date,
+        created_at timestamp(6),
+        created_by bigint,
+        incident_id bigint generated by default as identity,
+        student_id bigint,
+        description varchar(255),
+        primary key (incident_id)
+    );
+
+    create table health_info (
+        health_info_id bigint generated by default as identity,
+        student_id bigint,
+        updated_at timestamp(6),
+        allergies varchar(255),
+        medical_conditions varchar(255),
+        notes varchar(255),
+        primary key (health_info_id)
+    );
+
+    create table inventory (
+        total_quantity integer,
+        inventory_id bigint generated by default as identity,
+        item_id bigint not null,
+        updated_at timestamp(6),
+        primary key (inventory_id)
+    );
+
+    create table medical_items (
+        expiry_date date,
+        created_at timestamp(6),
+        item_id bigint generated by default as identity,
+        category varchar(255),
+        description TEXT,
+        item_name varchar(255),
+        manufacturer varchar(255),
+        storage_instructions varchar(255),
+        unit varchar(255),
+        primary key (item_id)
+    );
+
+    create table medication_requests (
+        is_sufficient_stock boolean,
+        total_quantity integer,
+        confirmed_at timestamp(6),
+        created_at timestamp(6),
+        inventory_id bigint,
+        request_id bigint generated by default as identity,
+        requested_by bigint,
+        student_id bigint,
+        confirmation_status varchar(255) check (confirmation_status in ('pending','confirmed','unconfirmed','in_progress','done')),
+        dosage varchar(255),
+        evening_quantity varchar(255),
+        frequency varchar(255),
+        medication_name varchar(255),
+        morning_quantity varchar(255),
+        noon_quantity varchar(255),
+        prescription_file varchar(255),
+        unconfirm_reason varchar(255),
+        primary key (request_id)
+    );
+
+    create table medication_schedule (
+        dispensed_quantity integer,
+        scheduled_date date,
+        scheduled_time time(6),
+        administered_by bigint not null,
+        created_at timestamp(6),
+        request_id bigint not null,
+        schedule_id bigint generated by default as identity,
+        student_id bigint not null,
+        notes varchar(255),
+        primary key (schedule_id)
+    );
+
+    create table notifications (
+        email_sent boolean,
+        read_status boolean,
+        created_at timestamp(6),
+        created_by bigint,
+        notification_id bigint generated by default as identity,
+        user_id bigint,
+        notification_type varchar(100),
+        content text,
+        title varchar(255) not null,
+        primary key (notification_id)
+    );
+
+    create table password_recovery (
+        is_used boolean,
+        created_at timestamp(6),
+        recovery_id bigint generated by default as identity,
+        user_id bigint,
+        otp_code varchar(255),
+        primary key (recovery_id)
+    );
+
+    create table roles (
+        role_id bigint generated by default as identity,
+        role_name varchar(255) unique,
+        primary key (role_id)
+    );
+
+    create table students (
+        date_of_birth date,
+        height_cm integer,
+        weight_kg integer,
+        parent_id bigint,
+        student_id bigint generated by default as identity,
+        updated_at timestamp(6),
+        blood_type varchar(255),
+        class_name varchar(255),
+        confirmation_status varchar(255) not null check (confirmation_status in ('pending','confirmed','unconfirmed','in_progress','done')),
+        full_name varchar(255),
+        gender varchar(255),
+        health_status varchar(255),
+        student_code varchar(255) unique,
+        primary key (student_id)
+    );
+
+    create table users (
+        created_at timestamp(6),
+        role_id bigint,
+        user_id bigint generated by default as identity,
+        email varchar(255) unique,
+        full_name varchar(255),
+        password_hash varchar(255),
+        phone varchar(255),
+        username varchar(255) unique,
+        primary key (user_id)
+    );
+
+    alter table if exists event_signups
+       add constraint FKe45uisbvj8ga02jvejp8uadh4
+       foreign key (event_id)
+       references health_events;
+
+    alter table if exists event_signups
+       add constraint FKm6cbkeedtyyu683y7gatpa9ob
+       foreign key (student_id)
+       references students;
+
+    alter table if exists health_events
+       add constraint FK3ydujm8twf2mfjjwdqbi0g8yf
+       foreign key (created_by)
+       references users;
+
+    alter table if exists health_incidents
+       add constraint FKq2arftcflmm4fx284piv8l4cv
+       foreign key (created_by)
+       references users;
+
+    alter table if exists health_incidents
+       add constraint FKk2m7jk632w7fkk4g7vi5oqiok
+       foreign key (student_id)
+       references students;
+
+    alter table if exists health_info
+       add constraint FKaal34tws61i284g3lw8pfy4wp
+       foreign key (student_id)
+       references students;
+
+    alter table if exists inventory
+       add constraint FK3vvjd14ugpw5liew26mx13j6t
+       foreign key (item_id)
+       references medical_items;
+
+    alter table if exists medication_requests
+       add constraint FKs9yy3gey2fgr1cu4rn819vnhw
+       foreign key (inventory_id)
+       references inventory;
+
+    alter table if exists medication_requests
+       add constraint FKmi685ybj4u476t603so4gbt1l
+       foreign key (requested_by)
+       references users;
+
+    alter table if exists medication_requests
+       add constraint FKj6a9lpdjq2bq6g3sqmstqtky9
+       foreign key (student_id)
+       references students;
+
+    alter table if exists medication_schedule
+       add constraint FKjjffrvouo6j5eh0t5c5lgy0k0
+       foreign key (administered_by)
+       references users;
+
+    alter table if exists medication_schedule
+       add constraint FKdvnrtbbw4odd3cjjnixgydugh
+       foreign key (request_id)
+       references medication_requests;
+
+    alter table if exists medication_schedule
+       add constraint FKeuo7bk8rxcl2c0dmr6v5o641c
+       foreign key (student_id)
+       references students;
+
+    alter table if exists notifications
+       add constraint FKn22rn1rf9urqnq9uaxhslbj3y
+       foreign key (created_by)
+       references users;
+
+    alter table if exists notifications
+       add constraint FK9y21adhxn0ayjhfocscqox7bh
+       foreign key (user_id)
+       references users;
+
+    alter table if exists password_recovery
+       add constraint FKe8rvirgchpmurh9y9sq1rkxsd
+       foreign key (user_id)
+       references users;
+
+    alter table if exists students
+       add constraint FKbkxvcp63bguiovrenmt5i42ip
+       foreign key (parent_id)
+       references users;
+
+    alter table if exists users
+       add constraint FKp56c1712k691lhsyewcssf40f
+       foreign key (role_id)
+       references roles;
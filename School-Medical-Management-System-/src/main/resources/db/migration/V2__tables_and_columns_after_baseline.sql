@@ -0,0 +1,86 @@
+-- Bảng và cột thêm sau lược đồ gốc. DB đã chạy với ddl-auto=update có thể có sẵn một phần nên mọi lệnh đều idempotent.
+
+-- Thông báo gửi cho cả một vai trò (một dòng broadcast, fan-out ra notifications)
+CREATE TABLE IF NOT EXISTS broadcasts (
+    recipient_count integer,
+    broadcast_id bigint generated by default as identity,
+    created_at timestamp(6),
+    created_by bigint,
+    target_role varchar(50),
+    notification_type varchar(100),
+    content text,
+    title varchar(255) not null,
+    primary key (broadcast_id)
+);
+
+-- Sổ kho: biến động tồn kho và ảnh chụp số dư
+CREATE TABLE IF NOT EXISTS stock_movements (
+    quantity integer not null,
+    created_at timestamp(6) not null,
+    created_by bigint,
+    inventory_id bigint not null,
+    movement_id bigint generated by default as identity,
+    schedule_id bigint,
+    movement_type varchar(20) not null check (movement_type in ('RECEIPT','DISPENSE','ADJUSTMENT','REVERSAL')),
+    primary key (movement_id)
+);
+
+CREATE TABLE IF NOT EXISTS inventory_balance_snapshots (
+    balance integer not null,
+    as_of timestamp(6) not null,
+    inventory_id bigint not null,
+    last_movement_id bigint not null,
+    snapshot_id bigint generated by default as identity,
+    primary key (snapshot_id)
+);
+
+-- Danh sách phát thuốc theo buổi đã lập sẵn
+CREATE TABLE IF NOT EXISTS medication_round_items (
+    dispensed_quantity integer not null,
+    round_date date not null,
+    administered_at timestamp(6),
+    created_at timestamp(6) not null,
+    inventory_id bigint,
+    last_schedule_id bigint,
+    request_id bigint not null,
+    round_item_id bigint generated by default as identity,
+    student_id bigint,
+    slot varchar(10) not null check (slot in ('MORNING','NOON','EVENING')),
+    class_name varchar(255),
+    medication_name varchar(255),
+    planned_quantity varchar(255),
+    student_name varchar(255),
+    primary key (round_item_id)
+);
+
+-- Token bị thu hồi khi đăng xuất / đổi mật khẩu
+CREATE TABLE IF NOT EXISTS token_revocations (
+    expires_at timestamp(6) not null,
+    revoked_at timestamp(6) not null,
+    email varchar(255) not null,
+    primary key (email)
+);
+
+-- Khóa tên / khóa tìm kiếm đã chuẩn hóa
+ALTER TABLE medical_items ADD COLUMN IF NOT EXISTS name_key varchar(255);
+ALTER TABLE medication_requests ADD COLUMN IF NOT EXISTS medication_name_key varchar(255);
+ALTER TABLE students ADD COLUMN IF NOT EXISTS search_key text;
+
+-- Outbox email của thông báo
+ALTER TABLE notifications ADD COLUMN IF NOT EXISTS email_status varchar(20) check (email_status in ('PENDING','SENT','DEAD'));
+ALTER TABLE notifications ADD COLUMN IF NOT EXISTS email_attempts integer;
+ALTER TABLE notifications ADD COLUMN IF NOT EXISTS next_attempt_at timestamp(6);
+ALTER TABLE notifications ADD COLUMN IF NOT EXISTS claimed_by varchar(64);
+ALTER TABLE notifications ADD COLUMN IF NOT EXISTS last_email_error varchar(500);
+ALTER TABLE notifications ADD COLUMN IF NOT EXISTS broadcast_id bigint;
+
+-- Khóa ngoại cùng tên Hibernate đã sinh, để DB cũ không bị tạo trùng
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'fk1khlf56qpycbgwc6xlp3sqe8d') THEN
+        ALTER TABLE broadcasts ADD CONSTRAINT FK1khlf56qpycbgwc6xlp3sqe8d FOREIGN KEY (created_by) REFERENCES users;
+    END IF;
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'fkq68655te9drsuo3ptptkwushd') THEN
+        ALTER TABLE notifications ADD CONSTRAINT FKq68655te9drsuo3ptptkwushd FOREIGN KEY (broadcast_id) REFERENCES broadcasts;
+    END IF;
+END $$;
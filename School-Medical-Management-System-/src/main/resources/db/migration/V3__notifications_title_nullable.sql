@@ -0,0 +1,2 @@
+-- Noti broadcast không lưu title trên từng dòng (xem bảng broadcasts)
+ALTER TABLE notifications ALTER COLUMN title DROP NOT NULL;
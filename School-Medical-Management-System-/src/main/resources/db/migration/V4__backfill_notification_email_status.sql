@@ -0,0 +1,5 @@
+-- Trạng thái gửi email: backfill cho các dòng có từ trước khi thêm cột
+UPDATE notifications SET email_status = CASE WHEN email_sent THEN 'SENT' ELSE 'PENDING' END
+WHERE email_status IS NULL;
+UPDATE notifications SET next_attempt_at = COALESCE(created_at, LOCALTIMESTAMP)
+WHERE next_attempt_at IS NULL AND email_status = 'PENDING';
@@ -0,0 +1,36 @@
+-- Dispatcher chỉ quét các dòng PENDING đến hạn
+CREATE INDEX IF NOT EXISTS idx_notifications_email_due
+    ON notifications (next_attempt_at) WHERE email_status = 'PENDING';
+
+-- Bộ đếm chưa đọc và mark-all-read chỉ chạm các dòng chưa đọc
+CREATE INDEX IF NOT EXISTS idx_notifications_unread
+    ON notifications (user_id) WHERE read_status = false;
+
+-- Phân trang keyset: (created_at, notification_id) cùng chiều DESC để scan index một lượt
+CREATE INDEX IF NOT EXISTS idx_notifications_user_keyset
+    ON notifications (user_id, created_at DESC, notification_id DESC);
+CREATE INDEX IF NOT EXISTS idx_notifications_keyset
+    ON notifications (created_at DESC, notification_id DESC);
+
+-- Lưu trữ noti cũ (NotificationRetentionJob): partition theo tháng, job tạo partition trước mỗi lần chuyển
+CREATE TABLE IF NOT EXISTS notifications_archive (
+    notification_id   BIGINT       NOT NULL,
+    user_id           BIGINT,
+    created_by        BIGINT,
+    broadcast_id      BIGINT,
+    title             VARCHAR(255),
+    content           TEXT,
+    notification_type VARCHAR(100),
+    read_status       BOOLEAN,
+    email_sent        BOOLEAN,
+    created_at        TIMESTAMP(6) NOT NULL,
+    archived_at       TIMESTAMP(6) NOT NULL DEFAULT LOCALTIMESTAMP,
+    PRIMARY KEY (notification_id, created_at)
+) PARTITION BY RANGE (created_at);
+CREATE TABLE IF NOT EXISTS notifications_archive_default PARTITION OF notifications_archive DEFAULT;
+CREATE INDEX IF NOT EXISTS idx_notifications_archive_user_keyset
+    ON notifications_archive (user_id, created_at DESC, notification_id DESC);
+
+-- Job retention chọn noti đã đọc + đã gửi email theo created_at
+CREATE INDEX IF NOT EXISTS idx_notifications_archivable
+    ON notifications (created_at) WHERE read_status = true AND email_status = 'SENT';
@@ -0,0 +1,13 @@
+-- Hàng đợi đơn thuốc của y tá: seek theo (created_at, request_id), có/không lọc trạng thái
+CREATE INDEX IF NOT EXISTS idx_medication_requests_status_keyset
+    ON medication_requests (confirmation_status, created_at DESC, request_id DESC);
+CREATE INDEX IF NOT EXISTS idx_medication_requests_keyset
+    ON medication_requests (created_at DESC, request_id DESC);
+
+-- Tính lại is_sufficient_stock chỉ chạm các đơn còn mở của một inventory
+CREATE INDEX IF NOT EXISTS idx_medication_requests_open_inventory
+    ON medication_requests (inventory_id) WHERE confirmation_status IN ('pending', 'confirmed', 'in_progress');
+
+-- Liên kết đơn thuốc chưa có inventory với thuốc mới theo khóa tên chuẩn hóa
+CREATE INDEX IF NOT EXISTS idx_medication_requests_orphan_name_key
+    ON medication_requests (medication_name_key) WHERE inventory_id IS NULL;
@@ -0,0 +1,8 @@
+-- PostgreSQL không tự tạo index cho khóa ngoại: nạp health info theo lô và lọc học sinh theo phụ huynh
+CREATE INDEX IF NOT EXISTS idx_health_info_student ON health_info (student_id);
+CREATE INDEX IF NOT EXISTS idx_students_parent ON students (parent_id);
+
+-- Tìm học sinh gần đúng, không dấu: trigram GIN trên search_key (tên + lớp đã chuẩn hóa) và mã học sinh
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS idx_students_search_trgm ON students USING gin (search_key gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_students_code_trgm ON students USING gin (UPPER(student_code) gin_trgm_ops);
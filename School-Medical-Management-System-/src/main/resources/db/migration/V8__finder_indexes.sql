@@ -0,0 +1,22 @@
+-- Index cho các finder còn lại của repository (PostgreSQL không tự index khóa ngoại).
+-- notifications(user_id) đã nằm trong idx_notifications_user_keyset; email_sent không còn được lọc
+-- (dispatcher dùng email_status, xem idx_notifications_email_due).
+CREATE INDEX IF NOT EXISTS idx_notifications_broadcast_user ON notifications (broadcast_id, user_id)
+    WHERE broadcast_id IS NOT NULL;
+CREATE INDEX IF NOT EXISTS idx_medication_requests_requested_by
+    ON medication_requests (requested_by, created_at DESC);
+CREATE INDEX IF NOT EXISTS idx_medication_requests_student
+    ON medication_requests (student_id, created_at DESC);
+CREATE INDEX IF NOT EXISTS idx_medication_schedule_student
+    ON medication_schedule (student_id, created_at DESC);
+CREATE INDEX IF NOT EXISTS idx_medication_schedule_request ON medication_schedule (request_id);
+-- Ràng buộc unique (student_id, event_id) chỉ phục vụ tra theo học sinh
+CREATE INDEX IF NOT EXISTS idx_event_signups_event ON event_signups (event_id, signup_date DESC);
+CREATE INDEX IF NOT EXISTS idx_health_incidents_student ON health_incidents (student_id, created_at DESC);
+CREATE INDEX IF NOT EXISTS idx_health_events_created_by ON health_events (created_by);
+CREATE INDEX IF NOT EXISTS idx_health_events_category ON health_events (category);
+CREATE INDEX IF NOT EXISTS idx_health_events_schedule_date ON health_events (schedule_date);
+CREATE INDEX IF NOT EXISTS idx_inventory_item ON inventory (item_id);
+CREATE INDEX IF NOT EXISTS idx_users_role ON users (role_id);
+CREATE INDEX IF NOT EXISTS idx_password_recovery_user_open
+    ON password_recovery (user_id, created_at DESC) WHERE is_used = false;
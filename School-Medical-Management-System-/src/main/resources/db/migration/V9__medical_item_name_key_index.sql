@@ -0,0 +1,2 @@
+-- Tra thuốc theo khóa tên chuẩn hóa (NameNormalizer) khi liên kết đơn thuốc với inventory
+CREATE INDEX IF NOT EXISTS idx_medical_items_name_key ON medical_items (name_key);
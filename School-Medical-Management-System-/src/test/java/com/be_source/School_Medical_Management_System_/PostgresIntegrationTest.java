@@ -0,0 +1,50 @@
+package com.be_source.School_Medical_Management_System_;
+
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeAll;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+/**
+ * Test chạy trên PostgreSQL thật (query native, ON CONFLICT, pg_trgm, khóa hàng...).
+ * Mặc định khởi động một container Testcontainers dùng chung cho mọi test class;
+ * truyền -Dtest.datasource.url=... (kèm .username/.password) để dùng một DB có sẵn, ví dụ trên CI.
+ * Không có Docker và không có DB ngoài thì các test này bị bỏ qua.
+ */
+@SpringBootTest
+public abstract class PostgresIntegrationTest {
+
+    private static final String EXTERNAL_URL = System.getProperty("test.datasource.url");
+
+    private static PostgreSQLContainer<?> postgres;
+
+    @BeforeAll
+    static void requireDatabase() {
+        Assumptions.assumeTrue(EXTERNAL_URL != null || DockerClientFactory.instance().isDockerAvailable(),
+                "Docker is not available and test.datasource.url is not set");
+    }
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        if (EXTERNAL_URL != null) {
+            registry.add("spring.datasource.url", () -> EXTERNAL_URL);
+            registry.add("spring.datasource.username", () -> System.getProperty("test.datasource.username", "postgres"));
+            registry.add("spring.datasource.password", () -> System.getProperty("test.datasource.password", ""));
+            return;
+        }
+        registry.add("spring.datasource.url", () -> container().getJdbcUrl());
+        registry.add("spring.datasource.username", () -> container().getUsername());
+        registry.add("spring.datasource.password", () -> container().getPassword());
+    }
+
+    private static synchronized PostgreSQLContainer<?> container() {
+        if (postgres == null) {
+            postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+            postgres.start();
+        }
+        return postgres;
+    }
+}
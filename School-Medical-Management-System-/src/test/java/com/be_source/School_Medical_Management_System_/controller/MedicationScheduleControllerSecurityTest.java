@@ -0,0 +1,80 @@
+package com.be_source.School_Medical_Management_System_.controller;
+
+import com.be_source.School_Medical_Management_System_.config.CorsConfig;
+import com.be_source.School_Medical_Management_System_.config.SecurityConfig;
+import com.be_source.School_Medical_Management_System_.response.CursorPageResponse;
+import com.be_source.School_Medical_Management_System_.response.MedicationScheduleResponse;
+import com.be_source.School_Medical_Management_System_.security.JwtUtil;
+import com.be_source.School_Medical_Management_System_.security.UserDetailsServiceImpl;
+import com.be_source.School_Medical_Management_System_.service.MedicationScheduleService;
+import com.be_source.School_Medical_Management_System_.service.TokenRevocationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(MedicationScheduleController.class)
+@Import({SecurityConfig.class, CorsConfig.class})
+class MedicationScheduleControllerSecurityTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private MedicationScheduleService scheduleService;
+    @MockitoBean
+    private JwtUtil jwtUtil;
+    @MockitoBean
+    private UserDetailsServiceImpl userDetailsService;
+    @MockitoBean
+    private TokenRevocationService tokenRevocationService;
+
+    @Test
+    void parentCanPageTheirChildrensSchedules() throws Exception {
+        when(scheduleService.getForCurrentParentStudents(any(), any(), any(), anyInt()))
+                .thenReturn(CursorPageResponse.<MedicationScheduleResponse>builder()
+                        .content(List.of())
+                        .size(20)
+                        .hasNext(false)
+                        .build());
+
+        mockMvc.perform(get("/api/schedules/my-students/cursor")
+                        .param("fromDate", "2026-10-01")
+                        .param("toDate", "2026-10-31")
+                        .with(user("parent@example.com").roles("PARENT")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hasNext").value(false));
+
+        verify(scheduleService).getForCurrentParentStudents(
+                eq(LocalDate.of(2026, 10, 1)), eq(LocalDate.of(2026, 10, 31)), eq(null), eq(20));
+    }
+
+    @Test
+    void nurseCannotUseParentEndpoint() throws Exception {
+        mockMvc.perform(get("/api/schedules/my-students/cursor")
+                        .with(user("nurse@example.com").roles("NURSE")))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(scheduleService);
+    }
+
+    @Test
+    void parentCannotUseNurseEndpoints() throws Exception {
+        mockMvc.perform(get("/api/schedules/nurse/all")
+                        .with(user("parent@example.com").roles("PARENT")))
+                .andExpect(status().isForbidden());
+    }
+}
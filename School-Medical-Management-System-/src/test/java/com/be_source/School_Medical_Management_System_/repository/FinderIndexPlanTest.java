@@ -0,0 +1,118 @@
+package com.be_source.School_Medical_Management_System_.repository;
+
+import com.be_source.School_Medical_Management_System_.PostgresIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Kiểm tra plan của các finder bằng EXPLAIN: tắt seq scan trong transaction để planner chọn index
+ * nếu index dùng được, nên test không phụ thuộc vào lượng dữ liệu mẫu.
+ */
+@Transactional
+class FinderIndexPlanTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    static Stream<Arguments> finders() {
+        return Stream.of(
+                Arguments.of("SELECT * FROM notifications WHERE email_status = 'PENDING' AND next_attempt_at <= LOCALTIMESTAMP",
+                        "idx_notifications_email_due"),
+                Arguments.of("SELECT * FROM notifications WHERE broadcast_id = 1 AND user_id = 1",
+                        "idx_notifications_broadcast_user"),
+                Arguments.of("SELECT * FROM medication_requests WHERE requested_by = 1 ORDER BY created_at DESC",
+                        "idx_medication_requests_requested_by"),
+                Arguments.of("SELECT * FROM medication_requests WHERE student_id = 1 ORDER BY created_at DESC",
+                        "idx_medication_requests_student"),
+                Arguments.of("SELECT * FROM medication_schedule WHERE student_id = 1 ORDER BY created_at DESC",
+                        "idx_medication_schedule_student"),
+                Arguments.of("SELECT * FROM medication_schedule WHERE request_id = 1",
+                        "idx_medication_schedule_request"),
+                Arguments.of("SELECT * FROM event_signups WHERE event_id = 1 ORDER BY signup_date DESC",
+                        "idx_event_signups_event"),
+                Arguments.of("SELECT * FROM health_incidents WHERE student_id = 1 ORDER BY created_at DESC",
+                        "idx_health_incidents_student"),
+                Arguments.of("SELECT * FROM health_events WHERE created_by = 1",
+                        "idx_health_events_created_by"),
+                Arguments.of("SELECT * FROM health_events WHERE category = 'VACCINATION'",
+                        "idx_health_events_category"),
+                Arguments.of("SELECT * FROM inventory WHERE item_id = 1",
+                        "idx_inventory_item"),
+                Arguments.of("SELECT * FROM users WHERE role_id = 1",
+                        "idx_users_role"),
+                Arguments.of("SELECT * FROM password_recovery WHERE user_id = 1 AND is_used = false ORDER BY created_at DESC",
+                        "idx_password_recovery_user_open"),
+                Arguments.of("SELECT * FROM health_info WHERE student_id = 1",
+                        "idx_health_info_student"),
+                Arguments.of("SELECT * FROM students WHERE parent_id = 1",
+                        "idx_students_parent"),
+                Arguments.of("SELECT * FROM medical_items WHERE name_key = 'paracetamol'",
+                        "idx_medical_items_name_key"),
+                Arguments.of("SELECT * FROM stock_movements WHERE inventory_id = 1 ORDER BY movement_id DESC LIMIT 20",
+                        "idx_stock_movements_inventory"),
+                Arguments.of("SELECT * FROM inventory_balance_snapshots WHERE inventory_id = 1 AND as_of >= LOCALTIMESTAMP ORDER BY as_of LIMIT 1",
+                        "idx_balance_snapshots_inventory"),
+                Arguments.of("SELECT * FROM medication_round_items WHERE round_date = CURRENT_DATE AND slot = 'MORNING' " +
+                                "ORDER BY class_name, student_name",
+                        "idx_medication_round_items_day"));
+    }
+
+    @ParameterizedTest
+    @MethodSource("finders")
+    void finderUsesIndex(String sql, String index) {
+        jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+
+        String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class));
+
+        assertThat(plan).contains(index).doesNotContain("Seq Scan");
+    }
+
+    // Bảng rỗng thì idx_notifications_keyset (toàn cục) và idx_notifications_user_keyset có cùng chi phí;
+    // cần thống kê có nhiều user để planner thấy lọc theo user_id mới là chọn lọc. Thống kê rollback cùng transaction.
+    @Test
+    void userNotificationPageUsesTheUserKeysetIndex() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        jdbcTemplate.update("INSERT INTO users (email, username, full_name, created_at) " +
+                "SELECT 'plan-' || ? || '-' || g || '@example.com', 'plan-' || ? || '-' || g, 'Plan ' || g, " +
+                "LOCALTIMESTAMP FROM generate_series(1, 100) g", suffix, suffix);
+        jdbcTemplate.update("INSERT INTO notifications (user_id, created_at, read_status, notification_type) " +
+                "SELECT u.user_id, LOCALTIMESTAMP - g * INTERVAL '1 hour', false, 'CUSTOM_NOTIFICATION' " +
+                "FROM users u CROSS JOIN generate_series(1, 20) g WHERE u.username LIKE 'plan-' || ? || '-%'", suffix);
+        jdbcTemplate.execute("ANALYZE notifications");
+        Long userId = jdbcTemplate.queryForObject(
+                "SELECT user_id FROM users WHERE username = ?", Long.class, "plan-" + suffix + "-1");
+
+        finderUsesIndex("SELECT * FROM notifications WHERE user_id = " + userId +
+                " ORDER BY created_at DESC, notification_id DESC LIMIT 21", "idx_notifications_user_keyset");
+    }
+
+    @Test
+    void roundItemConflictTargetHasUniqueIndex() {
+        String insert = "INSERT INTO medication_round_items (round_date, slot, request_id, dispensed_quantity, created_at) " +
+                "VALUES (DATE '2000-01-01', 'MORNING', -1, 0, LOCALTIMESTAMP) " +
+                "ON CONFLICT (round_date, request_id, slot) DO NOTHING";
+
+        assertThat(jdbcTemplate.update(insert)).isEqualTo(1);
+        assertThat(jdbcTemplate.update(insert)).isZero();
+    }
+
+    @Test
+    void backfillsAreVersionedMigrations() {
+        List<String> applied = jdbcTemplate.queryForList(
+                "SELECT script FROM flyway_schema_history WHERE success ORDER BY installed_rank", String.class);
+
+        assertThat(applied).contains("V4__backfill_notification_email_status.sql",
+                "com.be_source.School_Medical_Management_System_.migration.V12__BackfillNameKeys");
+    }
+}
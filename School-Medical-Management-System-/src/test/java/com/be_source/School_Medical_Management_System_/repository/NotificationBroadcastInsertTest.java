@@ -0,0 +1,110 @@
+package com.be_source.School_Medical_Management_System_.repository;
+
+import com.be_source.School_Medical_Management_System_.PostgresIntegrationTest;
+import com.be_source.School_Medical_Management_System_.model.Broadcast;
+import com.be_source.School_Medical_Management_System_.model.Role;
+import com.be_source.School_Medical_Management_System_.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.transaction.AfterTransaction;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Transactional
+class NotificationBroadcastInsertTest extends PostgresIntegrationTest {
+
+    private static final int ROLE_SIZE = 50_000;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+    @Autowired
+    private BroadcastRepository broadcastRepository;
+    @Autowired
+    private RoleRepository roleRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void returnsExactlyTheUsersThatReceivedARow() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        Role target = roleRepository.save(new Role(null, "Target-" + suffix));
+        Role other = roleRepository.save(new Role(null, "Other-" + suffix));
+        User a = user(target, "a-" + suffix);
+        User b = user(target, "b-" + suffix);
+        user(other, "c-" + suffix);
+
+        Broadcast broadcast = new Broadcast();
+        broadcast.setTitle("Thông báo");
+        broadcast.setTargetRole(target.getRoleName());
+        broadcast = broadcastRepository.save(broadcast);
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> recipients = notificationRepository.insertForBroadcast(
+                broadcast.getBroadcastId(), target.getRoleName(), a.getUserId(), now, now, "CUSTOM_NOTIFICATION");
+
+        assertThat(recipients).containsExactlyInAnyOrder(a.getUserId(), b.getUserId());
+        assertThat(notificationRepository.findByBroadcast_BroadcastIdAndUser_UserIdIn(
+                broadcast.getBroadcastId(), recipients)).hasSize(2);
+    }
+
+    @Test
+    void returnedIdsMatchTheInsertedRowsAtScale() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        Role target = roleRepository.save(new Role(null, "Target-" + suffix));
+        Role other = roleRepository.save(new Role(null, "Other-" + suffix));
+        seedUsers(target, "t-" + suffix, ROLE_SIZE);
+        seedUsers(other, "o-" + suffix, ROLE_SIZE / 10);
+
+        Broadcast broadcast = new Broadcast();
+        broadcast.setTitle("Thông báo");
+        broadcast.setTargetRole(target.getRoleName());
+        broadcast = broadcastRepository.save(broadcast);
+
+        LocalDateTime now = LocalDateTime.now();
+        long start = System.nanoTime();
+        List<Long> recipients = notificationRepository.insertForBroadcast(
+                broadcast.getBroadcastId(), target.getRoleName(), null, now, now, "CUSTOM_NOTIFICATION");
+        System.out.printf("insertForBroadcast fanned out to %d users in %d ms%n",
+                recipients.size(), (System.nanoTime() - start) / 1_000_000);
+
+        Integer rows = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM notifications WHERE broadcast_id = ?", Integer.class, broadcast.getBroadcastId());
+        List<Long> roleUsers = jdbcTemplate.queryForList(
+                "SELECT user_id FROM users WHERE role_id = ?", Long.class, target.getRoleId());
+
+        assertThat(recipients).hasSize(ROLE_SIZE).doesNotHaveDuplicates();
+        assertThat(rows).isEqualTo(ROLE_SIZE);
+        assertThat(new HashSet<>(recipients)).isEqualTo(new HashSet<>(roleUsers));
+    }
+
+    // Rollback không thu nhỏ index; dựng lại để các plan test chạy sau trên DB dùng lại không bị lệch
+    @AfterTransaction
+    void compactIndexes() {
+        jdbcTemplate.execute("REINDEX TABLE notifications");
+        jdbcTemplate.execute("REINDEX TABLE users");
+    }
+
+    private void seedUsers(Role role, String prefix, int count) {
+        jdbcTemplate.update("INSERT INTO users (email, username, full_name, role_id, created_at) " +
+                "SELECT ? || '-' || g || '@example.com', ? || '-' || g, 'User ' || g, ?, LOCALTIMESTAMP " +
+                "FROM generate_series(1, ?) g", prefix, prefix, role.getRoleId(), count);
+    }
+
+    private User user(Role role, String name) {
+        User user = new User();
+        user.setUsername(name);
+        user.setEmail(name + "@example.com");
+        user.setFullName(name);
+        user.setRole(role);
+        return userRepository.save(user);
+    }
+}
@@ -0,0 +1,50 @@
+package com.be_source.School_Medical_Management_System_.repository;
+
+import com.be_source.School_Medical_Management_System_.PostgresIntegrationTest;
+import com.be_source.School_Medical_Management_System_.model.TokenRevocation;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Transactional
+class TokenRevocationRepositoryTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private TokenRevocationRepository repository;
+
+    @Test
+    void upsertKeepsOneRowPerEmailWithTheLatestRevocation() {
+        String email = UUID.randomUUID() + "@example.com";
+        LocalDateTime first = LocalDateTime.now().minusHours(1).truncatedTo(ChronoUnit.MILLIS);
+        LocalDateTime second = first.plusMinutes(30);
+
+        repository.upsert(email, first, first.plusHours(10));
+        repository.upsert(email, second, second.plusHours(10));
+
+        assertThat(repository.findByExpiresAtAfter(LocalDateTime.now()))
+                .filteredOn(r -> r.getEmail().equals(email))
+                .singleElement()
+                .extracting(TokenRevocation::getRevokedAt)
+                .isEqualTo(second);
+    }
+
+    @Test
+    void deleteExpiredRemovesOnlyExpiredRows() {
+        String expired = UUID.randomUUID() + "@example.com";
+        String active = UUID.randomUUID() + "@example.com";
+        LocalDateTime now = LocalDateTime.now();
+        repository.upsert(expired, now.minusHours(11), now.minusHours(1));
+        repository.upsert(active, now.minusHours(1), now.plusHours(9));
+
+        repository.deleteExpired(now);
+
+        assertThat(repository.existsById(expired)).isFalse();
+        assertThat(repository.existsById(active)).isTrue();
+    }
+}
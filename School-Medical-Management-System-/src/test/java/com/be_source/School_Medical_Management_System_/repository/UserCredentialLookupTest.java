@@ -0,0 +1,111 @@
+package com.be_source.School_Medical_Management_System_.repository;
+
+import com.be_source.School_Medical_Management_System_.PostgresIntegrationTest;
+import com.be_source.School_Medical_Management_System_.security.UserCredential;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.transaction.AfterTransaction;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Chi phí xác thực mỗi request không được tăng theo số user: tra credential theo email đi qua unique index,
+ * chỉ đọc email/password hash/tên role. Đo từ 1k tới 1M user trong một transaction (rollback khi xong).
+ */
+@Transactional
+class UserCredentialLookupTest extends PostgresIntegrationTest {
+
+    private static final int[] SCALES = {1_000, 10_000, 100_000, 1_000_000};
+    private static final int LOOKUPS = 300;
+    // Độ sâu B-tree vài trang + một trang heap users + roles; không phụ thuộc số dòng
+    private static final int MAX_BUFFERS = 12;
+    private static final Pattern BUFFERS = Pattern.compile("Buffers: shared (?:hit=(\\d+))?\\s*(?:read=(\\d+))?");
+
+    // Tương đương SQL Hibernate sinh cho UserRepository.findCredentialByEmail
+    private static final String CREDENTIAL_SQL = "SELECT u.email, u.password_hash, r.role_name FROM users u " +
+            "JOIN roles r ON r.role_id = u.role_id WHERE u.email = ?";
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void lookupCostStaysFlatFromOneThousandToOneMillionUsers() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        Long roleId = jdbcTemplate.queryForObject(
+                "INSERT INTO roles (role_name) VALUES (?) RETURNING role_id", Long.class, "Bench-" + suffix);
+
+        Map<Integer, Double> micros = new LinkedHashMap<>();
+        int seeded = 0;
+        for (int scale : SCALES) {
+            jdbcTemplate.update("INSERT INTO users (email, username, password_hash, full_name, role_id, created_at) " +
+                    "SELECT 'bench-' || ? || '-' || g || '@example.com', 'bench-' || ? || '-' || g, " +
+                    "'$2a$10$abcdefghijklmnopqrstuu', 'Bench ' || g, ?, LOCALTIMESTAMP " +
+                    "FROM generate_series(?, ?) g", suffix, suffix, roleId, seeded + 1, scale);
+            seeded = scale;
+            jdbcTemplate.execute("ANALYZE users");
+
+            String probe = "bench-" + suffix + "-" + (scale / 2) + "@example.com";
+            List<String> plan = jdbcTemplate.queryForList("EXPLAIN (ANALYZE, BUFFERS) " +
+                    CREDENTIAL_SQL.replace("?", "'" + probe + "'"), String.class);
+            // Index Scan hay Bitmap Index Scan tùy thống kê heap; điều cần là đi qua unique index
+            assertThat(String.join("\n", plan)).contains("users_email_key").doesNotContain("Seq Scan on users");
+            assertThat(buffers(plan)).as("buffers at %d users", scale).isLessThanOrEqualTo(MAX_BUFFERS);
+
+            UserCredential credential = userRepository.findCredentialByEmail(probe).orElseThrow();
+            assertThat(credential.getRoleName()).isEqualTo("Bench-" + suffix);
+            assertThat(credential.getPasswordHash()).startsWith("$2a$10$");
+
+            micros.put(scale, averageLookupMicros(suffix, scale));
+        }
+
+        System.out.println("findCredentialByEmail average latency (us) by user count: " + micros);
+        // Seq scan ở 1M user chậm hơn hàng trăm lần; biên rộng để không phụ thuộc máy chạy
+        assertThat(micros.get(1_000_000)).isLessThan(micros.get(1_000) * 10);
+    }
+
+    // Rollback bỏ 1M dòng nhưng heap và index vẫn giữ các trang đã cấp; trên DB dùng lại, index phình làm planner
+    // chọn seq scan ở các lần chạy sau. Dọn heap và dựng lại index để DB trở về kích thước trước test.
+    @AfterTransaction
+    void compactUsers() {
+        jdbcTemplate.execute("VACUUM users");
+        jdbcTemplate.execute("REINDEX TABLE users");
+    }
+
+    private double averageLookupMicros(String suffix, int scale) {
+        for (int i = 0; i < LOOKUPS; i++) lookup(suffix, scale, i);
+        long start = System.nanoTime();
+        for (int i = 0; i < LOOKUPS; i++) lookup(suffix, scale, i);
+        return (System.nanoTime() - start) / 1_000.0 / LOOKUPS;
+    }
+
+    private void lookup(String suffix, int scale, int i) {
+        int n = 1 + (int) ((i * 7919L) % scale);
+        assertThat(userRepository.findCredentialByEmail("bench-" + suffix + "-" + n + "@example.com")).isPresent();
+    }
+
+    // Số trang nút gốc của plan đã chạm (hit + read), tức tổng của cả truy vấn
+    private static int buffers(List<String> plan) {
+        for (String line : plan) {
+            Matcher matcher = BUFFERS.matcher(line);
+            if (matcher.find()) {
+                return count(matcher.group(1)) + count(matcher.group(2));
+            }
+        }
+        throw new AssertionError("No buffer usage in plan: " + plan);
+    }
+
+    private static int count(String group) {
+        return group != null ? Integer.parseInt(group) : 0;
+    }
+}
@@ -0,0 +1,47 @@
+package com.be_source.School_Medical_Management_System_.scheduler;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NotificationDigestPolicyTest {
+
+    private static final LocalDateTime CREATED = LocalDateTime.of(2026, 10, 1, 8, 0);
+
+    private NotificationDigestPolicy policy;
+
+    @BeforeEach
+    void setUp() {
+        policy = new NotificationDigestPolicy();
+        ReflectionTestUtils.setField(policy, "windowSeconds",
+                Map.of("STUDENT_CONFIRMED", 120, "STUDENT_UNCONFIRMED", 300, "CUSTOM_NOTIFICATION", 0));
+    }
+
+    @Test
+    void onlyTypesWithAPositiveWindowAreDigested() {
+        assertThat(policy.isDigestible("STUDENT_CONFIRMED")).isTrue();
+        assertThat(policy.isDigestible("STUDENT_UNCONFIRMED")).isTrue();
+        assertThat(policy.isDigestible("CUSTOM_NOTIFICATION")).isFalse();
+        assertThat(policy.isDigestible("INTERNAL_ANNOUNCEMENT")).isFalse();
+        assertThat(policy.isDigestible(null)).isFalse();
+        assertThat(policy.digestibleTypes()).containsExactlyInAnyOrder("STUDENT_CONFIRMED", "STUDENT_UNCONFIRMED");
+    }
+
+    @Test
+    void firstAttemptWaitsForTheTypeWindow() {
+        assertThat(policy.firstAttemptAt("STUDENT_CONFIRMED", CREATED)).isEqualTo(CREATED.plusSeconds(120));
+        assertThat(policy.firstAttemptAt("STUDENT_UNCONFIRMED", CREATED)).isEqualTo(CREATED.plusSeconds(300));
+    }
+
+    @Test
+    void immediateTypesAreDueAtCreation() {
+        assertThat(policy.firstAttemptAt("CUSTOM_NOTIFICATION", CREATED)).isEqualTo(CREATED);
+        assertThat(policy.firstAttemptAt("INTERNAL_ANNOUNCEMENT", CREATED)).isEqualTo(CREATED);
+        assertThat(policy.firstAttemptAt(null, CREATED)).isEqualTo(CREATED);
+    }
+}
@@ -0,0 +1,93 @@
+package com.be_source.School_Medical_Management_System_.scheduler;
+
+import com.be_source.School_Medical_Management_System_.model.Notification;
+import com.be_source.School_Medical_Management_System_.repository.NotificationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class NotificationEmailOutboxTest {
+
+    private NotificationRepository repository;
+    private NotificationEmailOutbox outbox;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(NotificationRepository.class);
+        outbox = new NotificationEmailOutbox(repository, mock(NotificationDigestPolicy.class));
+        ReflectionTestUtils.setField(outbox, "maxAttempts", 8);
+        ReflectionTestUtils.setField(outbox, "retryBaseSeconds", 30L);
+        ReflectionTestUtils.setField(outbox, "retryMaxSeconds", 21600L);
+    }
+
+    @Test
+    void backoffDoublesFromTheBaseAndIsCapped() {
+        assertThat(outbox.backoffSeconds(1)).isEqualTo(30);
+        assertThat(outbox.backoffSeconds(2)).isEqualTo(60);
+        assertThat(outbox.backoffSeconds(5)).isEqualTo(480);
+        assertThat(outbox.backoffSeconds(10)).isEqualTo(15360);
+        assertThat(outbox.backoffSeconds(11)).isEqualTo(21600);
+        // Số lần rất lớn không được tràn số
+        assertThat(outbox.backoffSeconds(1000)).isEqualTo(21600);
+        assertThat(outbox.backoffSeconds(0)).isEqualTo(30);
+    }
+
+    @Test
+    void failureBelowMaxAttemptsIsRescheduledWithBackoff() {
+        LocalDateTime before = LocalDateTime.now();
+
+        outbox.recordFailures(List.of(failed(1L, 3, "SMTP timeout")), "node-1");
+
+        ArgumentCaptor<LocalDateTime> nextAttempt = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(repository).scheduleEmailRetry(eq(1L), eq("node-1"), nextAttempt.capture(), eq("SMTP timeout"));
+        assertThat(nextAttempt.getValue()).isBetween(before.plusSeconds(120), LocalDateTime.now().plusSeconds(120));
+        verify(repository, never()).markEmailDead(any(), any(), any());
+    }
+
+    @Test
+    void failureAtMaxAttemptsGoesToDeadLetters() {
+        outbox.recordFailures(List.of(failed(2L, 8, "550 mailbox unavailable")), "node-1");
+
+        verify(repository).markEmailDead(2L, "node-1", "550 mailbox unavailable");
+        verify(repository, never()).scheduleEmailRetry(any(), any(), any(), any());
+    }
+
+    @Test
+    void longErrorsAreTruncated() {
+        outbox.recordFailures(List.of(failed(3L, 1, "x".repeat(2000))), "node-1");
+
+        verify(repository).scheduleEmailRetry(eq(3L), eq("node-1"), any(), argThat(error -> error.length() == 500));
+    }
+
+    @Test
+    void markSentIsGuardedByTheClaimingNode() {
+        when(repository.markEmailSent(List.of(1L, 2L), "node-1")).thenReturn(1);
+
+        outbox.markSent(List.of(1L, 2L), "node-1");
+
+        verify(repository).markEmailSent(List.of(1L, 2L), "node-1");
+    }
+
+    @Test
+    void markSentSkipsEmptyBatches() {
+        outbox.markSent(List.of(), "node-1");
+
+        verifyNoInteractions(repository);
+    }
+
+    private static Notification failed(Long id, int attempts, String error) {
+        Notification notification = new Notification();
+        notification.setNotificationId(id);
+        notification.setEmailAttempts(attempts);
+        notification.setLastEmailError(error);
+        return notification;
+    }
+}
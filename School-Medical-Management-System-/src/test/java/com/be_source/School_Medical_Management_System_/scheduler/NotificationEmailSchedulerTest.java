@@ -0,0 +1,134 @@
+package com.be_source.School_Medical_Management_System_.scheduler;
+
+import com.be_source.School_Medical_Management_System_.model.Notification;
+import com.be_source.School_Medical_Management_System_.model.User;
+import com.be_source.School_Medical_Management_System_.serviceImpl.EmailServiceImpl;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.mockito.ArgumentCaptor;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Dispatcher gửi qua EmailServiceImpl thật tới GreenMail: lỗi theo vị trí trong batch phải quy về đúng noti.
+ */
+class NotificationEmailSchedulerTest {
+
+    @RegisterExtension
+    static final GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private NotificationEmailOutbox outbox;
+    private NotificationEmailScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        JavaMailSenderImpl sender = new JavaMailSenderImpl();
+        sender.setHost("localhost");
+        sender.setPort(ServerSetupTest.SMTP.getPort());
+
+        NotificationEmailTemplate template = new NotificationEmailTemplate(new DefaultResourceLoader());
+        template.init();
+        NotificationDigestPolicy digestPolicy = new NotificationDigestPolicy();
+        ReflectionTestUtils.setField(digestPolicy, "windowSeconds", Map.of("STUDENT_CONFIRMED", 120, "STUDENT_UNCONFIRMED", 120));
+
+        outbox = mock(NotificationEmailOutbox.class);
+        scheduler = new NotificationEmailScheduler(outbox, new EmailServiceImpl(sender), template, digestPolicy);
+        ReflectionTestUtils.setField(scheduler, "batchSize", 100);
+        ReflectionTestUtils.setField(scheduler, "leaseSeconds", 300);
+        ReflectionTestUtils.setField(scheduler, "smtpMaxConcurrency", 2);
+        ReflectionTestUtils.setField(scheduler, "smtpBatchSize", 20);
+        ReflectionTestUtils.setField(scheduler, "smtpHost", "localhost");
+        scheduler.init();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void failuresMapBackToTheirNotifications() {
+        User an = user(1L, "an@example.com");
+        User broken = user(2L, "@example.com");
+        User binh = user(3L, "binh@example.com");
+        Notification urgent = notification(11L, an, "CUSTOM_NOTIFICATION");
+        Notification failing = notification(12L, broken, "CUSTOM_NOTIFICATION");
+        Notification digestFirst = notification(13L, binh, "STUDENT_CONFIRMED");
+        Notification digestSecond = notification(14L, binh, "STUDENT_CONFIRMED");
+        when(outbox.claimBatch(anyString(), anyInt(), anyInt()))
+                .thenReturn(List.of(urgent, failing, digestFirst, digestSecond));
+
+        scheduler.sendNotificationEmails();
+
+        ArgumentCaptor<List<Long>> sent = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<List<Notification>> failed = ArgumentCaptor.forClass(List.class);
+        verify(outbox).markSent(sent.capture(), anyString());
+        verify(outbox).recordFailures(failed.capture(), anyString());
+
+        assertThat(sent.getValue()).containsExactlyInAnyOrder(11L, 13L, 14L);
+        assertThat(failed.getValue()).containsExactly(failing);
+        assertThat(failing.getLastEmailError()).contains("Missing local name");
+        // Hai noti digest của cùng user gộp thành một email
+        assertThat(greenMail.getReceivedMessages()).hasSize(2);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void digestTypesAreGroupedPerUserAndOthersSentAlone() throws Exception {
+        User an = user(1L, "an@example.com");
+        User binh = user(3L, "binh@example.com");
+        User noEmail = user(4L, " ");
+        when(outbox.claimBatch(anyString(), anyInt(), anyInt())).thenReturn(List.of(
+                notification(13L, binh, "STUDENT_CONFIRMED"),
+                notification(14L, binh, "STUDENT_UNCONFIRMED"),
+                notification(15L, an, "STUDENT_CONFIRMED"),
+                notification(16L, an, "CUSTOM_NOTIFICATION"),
+                notification(17L, an, "CUSTOM_NOTIFICATION"),
+                notification(18L, noEmail, "CUSTOM_NOTIFICATION")));
+
+        scheduler.sendNotificationEmails();
+
+        ArgumentCaptor<List<Long>> sent = ArgumentCaptor.forClass(List.class);
+        verify(outbox).markSent(sent.capture(), anyString());
+        assertThat(sent.getValue()).containsExactlyInAnyOrder(13L, 14L, 15L, 16L, 17L, 18L);
+
+        // binh: 1 email digest; an: 1 email cho noti digest duy nhất + 2 email gửi ngay; noEmail: không gửi
+        Map<String, List<String>> subjectsByRecipient = new HashMap<>();
+        for (MimeMessage message : greenMail.getReceivedMessages()) {
+            subjectsByRecipient.computeIfAbsent(message.getAllRecipients()[0].toString(), k -> new ArrayList<>())
+                    .add(message.getSubject());
+        }
+        assertThat(subjectsByRecipient.get("binh@example.com"))
+                .containsExactly("[SMMS] Bạn có 2 thông báo mới từ nhà trường");
+        assertThat(subjectsByRecipient.get("an@example.com")).hasSize(3);
+        assertThat(subjectsByRecipient).containsOnlyKeys("binh@example.com", "an@example.com");
+    }
+
+    private static User user(Long id, String email) {
+        User user = new User();
+        user.setUserId(id);
+        user.setEmail(email);
+        user.setFullName("User " + id);
+        return user;
+    }
+
+    private static Notification notification(Long id, User user, String type) {
+        Notification notification = new Notification();
+        notification.setNotificationId(id);
+        notification.setUser(user);
+        notification.setNotificationType(type);
+        notification.setTitle("Thông báo " + id);
+        notification.setContent("Nội dung " + id);
+        return notification;
+    }
+}
@@ -0,0 +1,66 @@
+package com.be_source.School_Medical_Management_System_.scheduler;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * So sánh render email bằng template biên dịch sẵn với String.format cũ (NotificationEmailTemplateTest.legacyRender).
+ * Không chạy trong surefire; chạy tay:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.be_source.School_Medical_Management_System_.scheduler.NotificationEmailTemplateBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NotificationEmailTemplateBenchmark {
+
+    @Param({"HEALTH_EVENT", "UNKNOWN"})
+    private String type;
+
+    private NotificationEmailTemplate template;
+    private final String recipient = "Nguyễn Văn An";
+    private final String content = "Học sinh Trần Thị Bình (lớp 3A) đã được xác nhận. Tỉ lệ 100% <b>đầy đủ</b>.";
+
+    @Setup
+    public void setUp() {
+        template = new NotificationEmailTemplate(new DefaultResourceLoader());
+        template.init();
+    }
+
+    @Benchmark
+    public String compiledTemplate() {
+        return template.render(type, recipient, content);
+    }
+
+    @Benchmark
+    public String stringFormat() {
+        return NotificationEmailTemplateTest.legacyRender(
+                template.getTypeLabel(type), template.getEmailHeader(type), content, recipient);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(NotificationEmailTemplateBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,133 @@
+package com.be_source.School_Medical_Management_System_.scheduler;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.time.Year;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NotificationEmailTemplateTest {
+
+    private static final String PARENT_PORTAL_URL = "http://localhost:5173/";
+
+    private NotificationEmailTemplate template;
+
+    @BeforeEach
+    void setUp() {
+        template = new NotificationEmailTemplate(new DefaultResourceLoader());
+        template.init();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"HEALTH_EVENT", "MEDICATION_REQUEST", "STUDENT_CONFIRMED", "INTERNAL_ANNOUNCEMENT", "UNKNOWN"})
+    void rendersTheSameHtmlAsTheFormatBaseline(String type) {
+        String recipient = "Nguyễn Văn An";
+        String content = "Học sinh Trần Thị Bình (lớp 3A) đã được xác nhận. Tỉ lệ 100% <b>đầy đủ</b>.";
+
+        String expected = legacyRender(template.getTypeLabel(type), template.getEmailHeader(type), content, recipient);
+
+        assertThat(template.render(type, recipient, content)).isEqualTo(expected);
+        // Lần render thứ hai đi qua bản đã bind sẵn theo loại
+        assertThat(template.render(type, recipient, content)).isEqualTo(expected);
+    }
+
+    // Nguyên văn NotificationEmailScheduler.buildEmailTemplate trước khi chuyển sang template biên dịch sẵn
+    // (NotificationEmailTemplateBenchmark dùng lại làm mốc so sánh)
+    static String legacyRender(String tag, String header, String content, String recipientName) {
+        return String.format("""
+                <!DOCTYPE html>
+                <html>
+                <head>
+                  <meta charset='UTF-8'>
+                  <title>School Health Notification</title>
+                  <style>
+                    body {
+                      font-family: 'Segoe UI', sans-serif;
+                      background-color: #f4f6f9;
+                      color: #333;
+                      margin: 0;
+                      padding: 0;
+                    }
+                    .email-container {
+                      max-width: 600px;
+                      margin: 30px auto;
+                      background-color: #fff;
+                      border-radius: 10px;
+                      box-shadow: 0 4px 12px rgba(0,0,0,0.1);
+                      padding: 30px;
+                    }
+                    .header {
+                      text-align: center;
+                      border-bottom: 1px solid #e0e0e0;
+                      padding-bottom: 10px;
+                      margin-bottom: 20px;
+                    }
+                    .header h2 {
+                      color: #2e86de;
+                      margin-bottom: 5px;
+                    }
+                    .tag {
+                      display: inline-block;
+                      background-color: #eaf4ff;
+                      color: #2e86de;
+                      padding: 4px 10px;
+                      font-size: 13px;
+                      border-radius: 20px;
+                      margin-top: 5px;
+                    }
+                    .content {
+                      font-size: 16px;
+                      line-height: 1.6;
+                    }
+                    .note {
+                      background-color: #f9f9f9;
+                      border-left: 4px solid #2e86de;
+                      padding: 10px 15px;
+                      margin-top: 20px;
+                      font-style: italic;
+                      color: #444;
+                    }
+                    .button {
+                      display: inline-block;
+                      margin-top: 20px;
+                      padding: 12px 24px;
+                      background-color: #2e86de;
+                      color: white;
+                      text-decoration: none;
+                      border-radius: 5px;
+                    }
+                    .footer {
+                      margin-top: 30px;
+                      font-size: 13px;
+                      color: #888;
+                      text-align: center;
+                    }
+                  </style>
+                </head>
+                <body>
+                  <div class='email-container'>
+                    <div class='header'>
+                      <h2>🏥 School Medical Notification</h2>
+                      <div class='tag'>%s</div>
+                      <p><strong>%s</strong></p>
+                    </div>
+                    <div class='content'>
+                      <p>Dear %s,</p>
+                      <p>%s</p>
+                      <div class='note'>
+                        This is an automated health alert from your child’s school. Please check the Parent Portal for more details.
+                      </div>
+                      <a href='%s' class='button'>View in Parent Portal</a>
+                    </div>
+                    <div class='footer'>
+                      &copy; %d School Medical Management System – All rights reserved.
+                    </div>
+                  </div>
+                </body>
+                </html>
+                """, tag, header, recipientName, content, PARENT_PORTAL_URL, Year.now().getValue());
+    }
+}
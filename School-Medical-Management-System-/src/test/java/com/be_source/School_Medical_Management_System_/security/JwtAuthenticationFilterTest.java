@@ -0,0 +1,69 @@
+package com.be_source.School_Medical_Management_System_.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class JwtAuthenticationFilterTest {
+
+    private final JwtUtil jwtUtil = new JwtUtil();
+    private UserDetailsServiceImpl userDetailsService;
+    private MockHttpServletRequest request;
+
+    @BeforeEach
+    void setUp() {
+        userDetailsService = mock(UserDetailsServiceImpl.class);
+        request = new MockHttpServletRequest("GET", "/api/students");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void authenticatesFromCredentialProjectionWithoutLoadingUserEntity() throws Exception {
+        UserDetails parent = new User("parent@example.com", "hash", List.of(new SimpleGrantedAuthority("ROLE_PARENT")));
+        when(userDetailsService.loadUserByUsername("parent@example.com")).thenReturn(parent);
+        request.addHeader("Authorization", "Bearer " + jwtUtil.generateToken(parent, "Parent"));
+
+        new JwtAuthenticationFilter(jwtUtil, userDetailsService)
+                .doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertThat(authentication).isNotNull();
+        assertThat(authentication.getName()).isEqualTo("parent@example.com");
+        verify(userDetailsService).loadUserByUsername("parent@example.com");
+        verifyNoMoreInteractions(userDetailsService);
+        // Entity User chưa được load: chỉ service gọi getCurrentUser mới load
+        assertThat(CurrentUserHolder.getLookupCount()).isZero();
+    }
+
+    @Test
+    void ignoresInvalidToken() throws Exception {
+        request.addHeader("Authorization", "Bearer not-a-jwt");
+
+        new JwtAuthenticationFilter(jwtUtil, userDetailsService)
+                .doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+        verifyNoInteractions(userDetailsService);
+    }
+}
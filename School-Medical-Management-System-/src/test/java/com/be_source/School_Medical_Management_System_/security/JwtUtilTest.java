@@ -0,0 +1,84 @@
+package com.be_source.School_Medical_Management_System_.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtUtilTest {
+
+    private final JwtUtil jwtUtil = new JwtUtil();
+    private final UserDetails parent = User.withUsername("parent@example.com").password("x").roles("PARENT").build();
+
+    @Test
+    void parsesOwnTokensWithOrWithoutBearerPrefix() {
+        String token = jwtUtil.generateToken(parent, "Parent");
+
+        Claims claims = jwtUtil.extractAllClaims(token);
+        assertThat(claims.getSubject()).isEqualTo("parent@example.com");
+        assertThat(jwtUtil.extractRole(claims)).isEqualTo("Parent");
+        assertThat(jwtUtil.extractUsername("Bearer " + token)).isEqualTo("parent@example.com");
+        assertThat(jwtUtil.isTokenValid(claims, parent)).isTrue();
+    }
+
+    @Test
+    void tokenIsNotValidForAnotherUser() {
+        UserDetails other = User.withUsername("other@example.com").password("x").roles("PARENT").build();
+
+        assertThat(jwtUtil.isTokenValid(jwtUtil.generateToken(parent, "Parent"), other)).isFalse();
+    }
+
+    @Test
+    void cachedParserIsSharedSafelyAcrossThreads() {
+        List<String> tokens = IntStream.range(0, 200)
+                .mapToObj(i -> jwtUtil.generateToken(
+                        User.withUsername("user" + i + "@example.com").password("x").roles("PARENT").build(), "Parent"))
+                .toList();
+
+        List<String> subjects = tokens.parallelStream().map(jwtUtil::extractUsername).toList();
+
+        assertThat(subjects).containsExactlyElementsOf(
+                IntStream.range(0, 200).mapToObj(i -> "user" + i + "@example.com").toList());
+    }
+
+    @Test
+    void rejectsTamperedAndForeignTokens() {
+        String token = jwtUtil.generateToken(parent, "Parent");
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+        String foreign = Jwts.builder()
+                .setSubject("parent@example.com")
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor("another_secret_key_that_is_long_enough".getBytes(StandardCharsets.UTF_8)),
+                        SignatureAlgorithm.HS256)
+                .compact();
+
+        assertThatThrownBy(() -> jwtUtil.extractAllClaims(tampered)).isInstanceOf(JwtException.class);
+        assertThatThrownBy(() -> jwtUtil.extractAllClaims(foreign)).isInstanceOf(JwtException.class);
+    }
+
+    @Test
+    void rejectsExpiredTokens() {
+        String expired = Jwts.builder()
+                .setSubject("parent@example.com")
+                .setIssuedAt(new Date(System.currentTimeMillis() - 120_000))
+                .setExpiration(new Date(System.currentTimeMillis() - 60_000))
+                .signWith(Keys.hmacShaKeyFor("my_super_secret_key_1234567890123456".getBytes(StandardCharsets.UTF_8)),
+                        SignatureAlgorithm.HS256)
+                .compact();
+
+        assertThatThrownBy(() -> jwtUtil.extractAllClaims(expired)).isInstanceOf(ExpiredJwtException.class);
+    }
+}
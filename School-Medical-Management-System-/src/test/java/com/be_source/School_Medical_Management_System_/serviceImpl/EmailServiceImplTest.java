@@ -0,0 +1,91 @@
+package com.be_source.School_Medical_Management_System_.serviceImpl;
+
+import com.be_source.School_Medical_Management_System_.request.OutgoingEmail;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EmailServiceImplTest {
+
+    @RegisterExtension
+    static final GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private final AtomicInteger connections = new AtomicInteger();
+    private EmailServiceImpl emailService;
+
+    @BeforeEach
+    void setUp() {
+        // Đếm số lần mở kết nối SMTP
+        JavaMailSenderImpl sender = new JavaMailSenderImpl() {
+            @Override
+            protected Transport connectTransport() throws MessagingException {
+                connections.incrementAndGet();
+                return super.connectTransport();
+            }
+        };
+        sender.setHost("localhost");
+        sender.setPort(ServerSetupTest.SMTP.getPort());
+        emailService = new EmailServiceImpl(sender);
+    }
+
+    @Test
+    void sendsWholeBatchOverOneConnection() {
+        Map<Integer, String> failures = emailService.sendAll(List.of(
+                email("a@example.com"), email("b@example.com"), email("c@example.com"),
+                email("d@example.com"), email("e@example.com")));
+
+        assertThat(failures).isEmpty();
+        assertThat(connections).hasValue(1);
+        assertThat(recipients()).containsExactly(
+                "a@example.com", "b@example.com", "c@example.com", "d@example.com", "e@example.com");
+    }
+
+    @Test
+    void badRecipientFailsOnlyItsOwnMessage() {
+        Map<Integer, String> failures = emailService.sendAll(List.of(
+                email("a@example.com"), email("@example.com"), email("b@example.com")));
+
+        assertThat(failures).containsOnlyKeys(1);
+        assertThat(failures.get(1)).contains("Missing local name");
+        assertThat(connections).hasValue(1);
+        assertThat(recipients()).containsExactly("a@example.com", "b@example.com");
+    }
+
+    @Test
+    void emptyBatchDoesNotConnect() {
+        assertThat(emailService.sendAll(List.of())).isEmpty();
+        assertThat(connections).hasValue(0);
+    }
+
+    private List<String> recipients() {
+        return Arrays.stream(greenMail.getReceivedMessages())
+                .map(EmailServiceImplTest::recipient)
+                .toList();
+    }
+
+    private static String recipient(MimeMessage message) {
+        try {
+            return message.getRecipients(Message.RecipientType.TO)[0].toString();
+        } catch (MessagingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static OutgoingEmail email(String to) {
+        return new OutgoingEmail(to, "[SMMS] Thông báo", "<p>Nội dung</p>");
+    }
+}
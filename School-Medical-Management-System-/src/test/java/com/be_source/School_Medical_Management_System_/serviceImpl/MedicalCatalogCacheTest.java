@@ -0,0 +1,89 @@
+package com.be_source.School_Medical_Management_System_.serviceImpl;
+
+import com.be_source.School_Medical_Management_System_.model.Inventory;
+import com.be_source.School_Medical_Management_System_.model.MedicalItem;
+import com.be_source.School_Medical_Management_System_.repository.InventoryRepository;
+import com.be_source.School_Medical_Management_System_.repository.MedicalItemRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class MedicalCatalogCacheTest {
+
+    private MedicalItemRepository medicalItemRepository;
+    private InventoryRepository inventoryRepository;
+    private MedicalCatalogCache cache;
+
+    @BeforeEach
+    void setUp() {
+        medicalItemRepository = mock(MedicalItemRepository.class);
+        inventoryRepository = mock(InventoryRepository.class);
+        cache = new MedicalCatalogCache(medicalItemRepository, inventoryRepository);
+        ReflectionTestUtils.setField(cache, "liveQuantities", true);
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 60L);
+
+        MedicalItem paracetamol = item(1L, "Paracetamol 500mg", "Giảm đau, hạ sốt");
+        MedicalItem siro = item(2L, "Siro ho trẻ em", "Dùng khi ho có đờm");
+        MedicalItem bang = item(3L, "Băng gạc", "Vật tư sơ cứu");
+        when(medicalItemRepository.findAll(any(Sort.class))).thenReturn(List.of(paracetamol, siro, bang));
+        when(inventoryRepository.findAllWithItem()).thenReturn(List.of(
+                Inventory.builder().inventoryId(10L).totalQuantity(50).medicalItem(paracetamol).build()));
+    }
+
+    @Test
+    void searchIgnoresAccentsAndRanksNamePrefixFirst() {
+        assertThat(cache.search("BANG", false)).extracting(e -> e.item().getItemId()).containsExactly(3L);
+        // Tên bắt đầu bằng từ khóa trước, sau đó mới đến mô tả (giữ thứ tự danh sách gốc)
+        assertThat(cache.search("S", true)).extracting(e -> e.item().getItemId()).containsExactly(2L, 1L, 3L);
+        assertThat(cache.search("sốt", true)).extracting(e -> e.item().getItemId()).containsExactly(1L);
+        assertThat(cache.search("sot", false)).isEmpty();
+        assertThat(cache.search("  ", true)).isEmpty();
+    }
+
+    @Test
+    void servesFromMemoryUntilInvalidated() {
+        cache.all();
+        cache.byItemId(1L);
+        cache.byNameKey("paracetamol 500mg");
+        verify(medicalItemRepository, times(1)).findAll(any(Sort.class));
+
+        cache.invalidate();
+        cache.all();
+        verify(medicalItemRepository, times(2)).findAll(any(Sort.class));
+        assertThat(cache.stats().getEvictions()).isEqualTo(1);
+    }
+
+    @Test
+    void reloadsAfterTtlSoOtherInstancesChangesBecomeVisible() throws InterruptedException {
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 1L);
+        cache.all();
+        Thread.sleep(1100);
+        cache.all();
+
+        verify(medicalItemRepository, times(2)).findAll(any(Sort.class));
+        assertThat(cache.stats().getExpirations()).isEqualTo(1);
+    }
+
+    @Test
+    void byNameKeyOnlyMatchesItemsWithInventory() {
+        assertThat(cache.byNameKey("paracetamol 500mg")).isPresent();
+        assertThat(cache.byNameKey("siro ho tre em")).isEmpty();
+    }
+
+    private static MedicalItem item(Long id, String name, String description) {
+        return MedicalItem.builder()
+                .itemId(id)
+                .itemName(name)
+                .description(description)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,193 @@
+package com.be_source.School_Medical_Management_System_.serviceImpl;
+
+import com.be_source.School_Medical_Management_System_.PostgresIntegrationTest;
+import com.be_source.School_Medical_Management_System_.enums.ConfirmationStatus;
+import com.be_source.School_Medical_Management_System_.model.MedicationRequest;
+import com.be_source.School_Medical_Management_System_.model.Role;
+import com.be_source.School_Medical_Management_System_.model.Students;
+import com.be_source.School_Medical_Management_System_.model.User;
+import com.be_source.School_Medical_Management_System_.repository.MedicationRequestRepository;
+import com.be_source.School_Medical_Management_System_.repository.RoleRepository;
+import com.be_source.School_Medical_Management_System_.repository.StudentRepository;
+import com.be_source.School_Medical_Management_System_.repository.UserRepository;
+import com.be_source.School_Medical_Management_System_.response.CursorPageResponse;
+import com.be_source.School_Medical_Management_System_.response.MedicationRequestResponse;
+import com.be_source.School_Medical_Management_System_.service.MedicationRequestService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Hàng đợi đơn thuốc của y tá trên PostgreSQL thật: các tổ hợp filter, duyệt keyset qua nhiều trang và thứ tự
+ * ổn định khi nhiều đơn trùng created_at. Mọi truy vấn lọc theo lớp riêng của test để không lẫn dữ liệu khác.
+ */
+class MedicationRequestNurseQueueTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private MedicationRequestService requestService;
+    @Autowired
+    private MedicationRequestRepository requestRepository;
+    @Autowired
+    private RoleRepository roleRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private StudentRepository studentRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String classA;
+    private String classB;
+    private User parent;
+    private final List<Students> students = new ArrayList<>();
+    private final List<Long> requestIds = new ArrayList<>();
+
+    private Long r1, r2, r3, r4, r5, r6, r7;
+
+    @BeforeEach
+    void seed() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        classA = "QA-" + suffix;
+        classB = "QB-" + suffix;
+        Role role = roleRepository.save(new Role(null, "Parent-" + suffix));
+        parent = new User();
+        parent.setUsername("parent-" + suffix);
+        parent.setEmail("parent-" + suffix + "@example.com");
+        parent.setFullName("Parent " + suffix);
+        parent.setRole(role);
+        parent = userRepository.save(parent);
+
+        Students a = student("Student A " + suffix, classA);
+        Students b = student("Student B " + suffix, classB);
+
+        r1 = request(a, ConfirmationStatus.pending, at(1, 8), true);
+        r2 = request(a, ConfirmationStatus.pending, at(2, 8), false);
+        r3 = request(a, ConfirmationStatus.confirmed, at(2, 8), true);
+        r4 = request(a, ConfirmationStatus.pending, at(3, 9), true);
+        r5 = request(a, ConfirmationStatus.unconfirmed, at(4, 10), false);
+        r6 = request(a, ConfirmationStatus.pending, at(4, 10), true);
+        r7 = request(b, ConfirmationStatus.pending, at(3, 9), true);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        requestIds.forEach(id -> jdbcTemplate.update("DELETE FROM medication_requests WHERE request_id = ?", id));
+        students.forEach(s -> jdbcTemplate.update("DELETE FROM students WHERE student_id = ?", s.getStudentId()));
+        jdbcTemplate.update("DELETE FROM users WHERE user_id = ?", parent.getUserId());
+        jdbcTemplate.update("DELETE FROM roles WHERE role_id = ?", parent.getRole().getRoleId());
+    }
+
+    @Test
+    void newestFirstWithTiesBrokenByIdDescending() {
+        assertThat(ids(queue(null, classA, null, null, null, 100))).containsExactly(r6, r5, r4, r3, r2, r1);
+    }
+
+    @Test
+    void filtersCombine() {
+        assertThat(ids(queue(ConfirmationStatus.pending, classA, null, null, null, 100)))
+                .containsExactly(r6, r4, r2, r1);
+        assertThat(ids(queue(ConfirmationStatus.pending, classA, day(2), day(3), null, 100)))
+                .containsExactly(r4, r2);
+        assertThat(ids(queue(null, classA, day(4), null, null, 100)))
+                .containsExactly(r6, r5);
+        assertThat(ids(queue(null, classA, null, day(2), null, 100)))
+                .containsExactly(r3, r2, r1);
+        assertThat(ids(queue(ConfirmationStatus.pending, classA, null, null, true, 100)))
+                .containsExactly(r6, r4, r1);
+        assertThat(ids(queue(null, classA, null, null, false, 100)))
+                .containsExactly(r5, r2);
+        assertThat(ids(queue(ConfirmationStatus.pending, classB, null, null, null, 100)))
+                .containsExactly(r7);
+        assertThat(queue(ConfirmationStatus.done, classA, null, null, null, 100).getContent()).isEmpty();
+    }
+
+    @Test
+    void twoPagesFollowTheCursor() {
+        CursorPageResponse<MedicationRequestResponse> first = queue(null, classA, null, null, null, 4);
+        assertThat(ids(first)).containsExactly(r6, r5, r4, r3);
+        assertThat(first.isHasNext()).isTrue();
+
+        CursorPageResponse<MedicationRequestResponse> second = queue(null, classA, null, null, null, 4, first.getNextCursor());
+        assertThat(ids(second)).containsExactly(r2, r1);
+        assertThat(second.isHasNext()).isFalse();
+        assertThat(second.getNextCursor()).isNull();
+    }
+
+    @Test
+    void pagesSplittingEqualTimestampsNeitherSkipNorRepeat() {
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPageResponse<MedicationRequestResponse> page = queue(null, classA, null, null, null, 1, cursor);
+            seen.addAll(ids(page));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertThat(seen).containsExactly(r6, r5, r4, r3, r2, r1);
+    }
+
+    @Test
+    void newerRequestsDoNotShiftLaterPages() {
+        CursorPageResponse<MedicationRequestResponse> first = queue(null, classA, null, null, null, 3);
+        request(students.get(0), ConfirmationStatus.pending, at(5, 7), true);
+
+        assertThat(ids(queue(null, classA, null, null, null, 3, first.getNextCursor()))).containsExactly(r3, r2, r1);
+    }
+
+    private CursorPageResponse<MedicationRequestResponse> queue(ConfirmationStatus status, String className,
+                                                                LocalDate from, LocalDate to, Boolean sufficient, int size) {
+        return queue(status, className, from, to, sufficient, size, null);
+    }
+
+    private CursorPageResponse<MedicationRequestResponse> queue(ConfirmationStatus status, String className,
+                                                                LocalDate from, LocalDate to, Boolean sufficient,
+                                                                int size, String cursor) {
+        return requestService.getNurseQueue(status, className, from, to, sufficient, cursor, size);
+    }
+
+    private static List<Long> ids(CursorPageResponse<MedicationRequestResponse> page) {
+        return page.getContent().stream().map(MedicationRequestResponse::getRequestId).toList();
+    }
+
+    private static LocalDate day(int dayOfMonth) {
+        return LocalDate.of(2030, 3, dayOfMonth);
+    }
+
+    private static LocalDateTime at(int dayOfMonth, int hour) {
+        return day(dayOfMonth).atTime(hour, 0);
+    }
+
+    private Students student(String name, String className) {
+        Students student = new Students();
+        student.setFullName(name);
+        student.setClassName(className);
+        student.setParent(parent);
+        student = studentRepository.save(student);
+        students.add(student);
+        return student;
+    }
+
+    private Long request(Students student, ConfirmationStatus status, LocalDateTime createdAt, boolean sufficient) {
+        MedicationRequest request = new MedicationRequest();
+        request.setStudent(student);
+        request.setRequestedBy(parent);
+        request.setMedicationName("Paracetamol");
+        request.setTotalQuantity(10);
+        request.setConfirmationStatus(status);
+        request.setIsSufficientStock(sufficient);
+        request.setCreatedAt(createdAt);
+        Long id = requestRepository.save(request).getRequestId();
+        requestIds.add(id);
+        return id;
+    }
+}
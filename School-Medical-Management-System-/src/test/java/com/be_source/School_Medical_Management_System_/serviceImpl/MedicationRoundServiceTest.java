@@ -0,0 +1,207 @@
+package com.be_source.School_Medical_Management_System_.serviceImpl;
+
+import com.be_source.School_Medical_Management_System_.PostgresIntegrationTest;
+import com.be_source.School_Medical_Management_System_.enums.ConfirmationStatus;
+import com.be_source.School_Medical_Management_System_.model.*;
+import com.be_source.School_Medical_Management_System_.repository.*;
+import com.be_source.School_Medical_Management_System_.service.MedicationRequestService;
+import com.be_source.School_Medical_Management_System_.service.MedicationRoundService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Kế hoạch phát thuốc theo buổi trên PostgreSQL thật: sinh kế hoạch, chạy lại không nhân đôi (unique index V11),
+ * và các hook khi y tá xác nhận / hủy xác nhận đơn hoặc ghi nhận một lần cho uống. Transaction rollback khi xong.
+ */
+@Transactional
+class MedicationRoundServiceTest extends PostgresIntegrationTest {
+
+    private static final LocalDate ROUND_DATE = LocalDate.of(2031, 1, 15);
+
+    @Autowired
+    private MedicationRoundService roundService;
+    @Autowired
+    private MedicationRequestService requestService;
+    @Autowired
+    private RoleRepository roleRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private StudentRepository studentRepository;
+    @Autowired
+    private MedicalItemRepository medicalItemRepository;
+    @Autowired
+    private InventoryRepository inventoryRepository;
+    @Autowired
+    private MedicationRequestRepository requestRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User parent;
+    private Students student;
+    private Inventory inventory;
+    private MedicationRequest confirmed;
+    private MedicationRequest pending;
+    private MedicationRequest noDoses;
+
+    @BeforeEach
+    void seed() {
+        // Kế hoạch hôm nay có thể đã được job/test khác sinh; xóa trong transaction này để các hook chạy từ đầu
+        jdbcTemplate.update("DELETE FROM medication_round_items WHERE round_date IN (?, ?)", LocalDate.now(), ROUND_DATE);
+
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        Role role = roleRepository.save(new Role(null, "Parent-" + suffix));
+        parent = new User();
+        parent.setUsername("parent-" + suffix);
+        parent.setEmail("parent-" + suffix + "@example.com");
+        parent.setFullName("Parent " + suffix);
+        parent.setRole(role);
+        parent = userRepository.save(parent);
+
+        student = new Students();
+        student.setFullName("Student " + suffix);
+        student.setClassName("R-" + suffix);
+        student.setParent(parent);
+        student = studentRepository.save(student);
+
+        MedicalItem item = medicalItemRepository.save(MedicalItem.builder().itemName("Siro " + suffix).unit("ml").build());
+        inventory = inventoryRepository.save(Inventory.builder()
+                .medicalItem(item)
+                .totalQuantity(100)
+                .updatedAt(LocalDateTime.now())
+                .build());
+
+        confirmed = request(ConfirmationStatus.confirmed, "1 viên", " ", "2");
+        pending = request(ConfirmationStatus.pending, null, "1", null);
+        noDoses = request(ConfirmationStatus.in_progress, "0", "", null);
+    }
+
+    @Test
+    void materializeSplitsConfirmedRequestsIntoTheirSlots() {
+        roundService.materialize(ROUND_DATE);
+
+        assertThat(slots(ROUND_DATE, confirmed)).containsExactlyInAnyOrderEntriesOf(Map.of("MORNING", "1 viên", "EVENING", "2"));
+        assertThat(slots(ROUND_DATE, pending)).isEmpty();
+        assertThat(slots(ROUND_DATE, noDoses)).isEmpty();
+    }
+
+    @Test
+    void materializeAgainInsertsNothingAndKeepsRecordedDoses() {
+        roundService.materialize(ROUND_DATE);
+        roundService.recordDose(ROUND_DATE, LocalTime.of(8, 0), confirmed.getRequestId(), 501L, 1);
+
+        assertThat(roundService.materialize(ROUND_DATE)).isZero();
+
+        assertThat(slots(ROUND_DATE, confirmed)).hasSize(2);
+        assertThat(dispensed(ROUND_DATE, confirmed, "MORNING")).isEqualTo(1);
+    }
+
+    @Test
+    void recordDoseUpdatesTheSlotOfTheDoseTime() {
+        roundService.materialize(ROUND_DATE);
+
+        roundService.recordDose(ROUND_DATE, LocalTime.of(16, 30), confirmed.getRequestId(), 502L, 2);
+
+        Map<String, Object> evening = row(ROUND_DATE, confirmed, "EVENING");
+        assertThat(evening.get("dispensed_quantity")).isEqualTo(2);
+        assertThat(evening.get("last_schedule_id")).isEqualTo(502L);
+        assertThat(evening.get("administered_at")).isNotNull();
+        assertThat(dispensed(ROUND_DATE, confirmed, "MORNING")).isZero();
+    }
+
+    @Test
+    void reversedDoseNeverGoesBelowZero() {
+        roundService.materialize(ROUND_DATE);
+        roundService.recordDose(ROUND_DATE, LocalTime.of(7, 45), confirmed.getRequestId(), 503L, 1);
+
+        roundService.recordDose(ROUND_DATE, LocalTime.of(7, 45), confirmed.getRequestId(), 503L, -3);
+
+        assertThat(dispensed(ROUND_DATE, confirmed, "MORNING")).isZero();
+    }
+
+    @Test
+    void doseOutsideThePlanChangesNothing() {
+        roundService.materialize(ROUND_DATE);
+
+        // Đơn không có cữ trưa; ngày chưa có kế hoạch
+        roundService.recordDose(ROUND_DATE, LocalTime.of(12, 0), confirmed.getRequestId(), 504L, 1);
+        roundService.recordDose(ROUND_DATE.plusDays(1), LocalTime.of(8, 0), confirmed.getRequestId(), 505L, 1);
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COALESCE(SUM(dispensed_quantity), 0) FROM medication_round_items " +
+                "WHERE request_id = ?", Integer.class, confirmed.getRequestId())).isZero();
+    }
+
+    @Test
+    void confirmingARequestAddsItToTodaysPlanOnlyOnceThePlanExists() {
+        LocalDate today = LocalDate.now();
+
+        requestService.confirmRequest(pending.getRequestId());
+        assertThat(slots(today, pending)).isEmpty();
+
+        roundService.materialize(today);
+        MedicationRequest late = request(ConfirmationStatus.pending, "1", null, null);
+        requestService.confirmRequest(late.getRequestId());
+
+        assertThat(slots(today, pending)).containsOnlyKeys("NOON");
+        assertThat(slots(today, late)).containsOnlyKeys("MORNING");
+    }
+
+    @Test
+    void unconfirmingARequestDropsOnlyDosesNotYetGiven() {
+        LocalDate today = LocalDate.now();
+        roundService.materialize(today);
+        roundService.recordDose(today, LocalTime.of(8, 0), confirmed.getRequestId(), 506L, 1);
+
+        requestService.unconfirmRequest(confirmed.getRequestId(), "Phụ huynh đổi đơn");
+
+        assertThat(slots(today, confirmed)).containsOnlyKeys("MORNING");
+        assertThat(dispensed(today, confirmed, "MORNING")).isEqualTo(1);
+    }
+
+    private Map<String, String> slots(LocalDate date, MedicationRequest request) {
+        Map<String, String> slots = new HashMap<>();
+        jdbcTemplate.query("SELECT slot, planned_quantity FROM medication_round_items WHERE round_date = ? AND request_id = ?",
+                rs -> { slots.put(rs.getString("slot"), rs.getString("planned_quantity")); },
+                date, request.getRequestId());
+        return slots;
+    }
+
+    private Map<String, Object> row(LocalDate date, MedicationRequest request, String slot) {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList("SELECT * FROM medication_round_items " +
+                "WHERE round_date = ? AND request_id = ? AND slot = ?", date, request.getRequestId(), slot);
+        assertThat(rows).hasSize(1);
+        return rows.get(0);
+    }
+
+    private int dispensed(LocalDate date, MedicationRequest request, String slot) {
+        return (Integer) row(date, request, slot).get("dispensed_quantity");
+    }
+
+    private MedicationRequest request(ConfirmationStatus status, String morning, String noon, String evening) {
+        MedicationRequest request = new MedicationRequest();
+        request.setStudent(student);
+        request.setRequestedBy(parent);
+        request.setMedicationName(inventory.getMedicalItem().getItemName());
+        request.setInventory(inventory);
+        request.setIsSufficientStock(true);
+        request.setTotalQuantity(20);
+        request.setMorningQuantity(morning);
+        request.setNoonQuantity(noon);
+        request.setEveningQuantity(evening);
+        request.setConfirmationStatus(status);
+        return requestRepository.saveAndFlush(request);
+    }
+}
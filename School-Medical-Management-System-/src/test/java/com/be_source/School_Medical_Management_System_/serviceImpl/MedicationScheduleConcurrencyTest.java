@@ -0,0 +1,209 @@
+package com.be_source.School_Medical_Management_System_.serviceImpl;
+
+import com.be_source.School_Medical_Management_System_.PostgresIntegrationTest;
+import com.be_source.School_Medical_Management_System_.enums.ConfirmationStatus;
+import com.be_source.School_Medical_Management_System_.model.*;
+import com.be_source.School_Medical_Management_System_.repository.*;
+import com.be_source.School_Medical_Management_System_.request.MedicationScheduleRequest;
+import com.be_source.School_Medical_Management_System_.service.MedicationScheduleService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Cấp phát đồng thời trên PostgreSQL thật: hai schedule liên tục được chuyển qua lại giữa hai kho theo chiều ngược nhau
+ * (trước đây restore/dispense khóa hai kho theo thứ tự khác nhau nên deadlock), cùng lúc có các lượt tạo mới vét kho.
+ */
+class MedicationScheduleConcurrencyTest extends PostgresIntegrationTest {
+
+    private static final int INITIAL_STOCK = 50;
+    private static final int REQUESTED = 100;
+    private static final int ROUNDS = 30;
+    private static final Set<String> BUSINESS_ERRORS = Set.of(
+            "Insufficient stock in inventory",
+            "Dispensed quantity exceeds remaining request quantity");
+
+    @Autowired
+    private MedicationScheduleService scheduleService;
+    @Autowired
+    private RoleRepository roleRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private StudentRepository studentRepository;
+    @Autowired
+    private MedicalItemRepository medicalItemRepository;
+    @Autowired
+    private InventoryRepository inventoryRepository;
+    @Autowired
+    private MedicationRequestRepository requestRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User nurse;
+    private Students student;
+    private Inventory inventoryA;
+    private Inventory inventoryB;
+    private MedicationRequest requestA;
+    private MedicationRequest requestB;
+
+    @BeforeEach
+    void seed() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        Role role = roleRepository.save(new Role(null, "Nurse-" + suffix));
+        nurse = new User();
+        nurse.setUsername("nurse-" + suffix);
+        nurse.setEmail("nurse-" + suffix + "@example.com");
+        nurse.setFullName("Nurse " + suffix);
+        nurse.setRole(role);
+        nurse = userRepository.save(nurse);
+
+        student = new Students();
+        student.setFullName("Student " + suffix);
+        student.setClassName("1A");
+        student = studentRepository.save(student);
+
+        inventoryA = inventory("Paracetamol " + suffix);
+        inventoryB = inventory("Ibuprofen " + suffix);
+        requestA = request(inventoryA);
+        requestB = request(inventoryB);
+        authenticate();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        SecurityContextHolder.clearContext();
+        List<Long> inventories = List.of(inventoryA.getInventoryId(), inventoryB.getInventoryId());
+        String ids = inventories.get(0) + ", " + inventories.get(1);
+        jdbcTemplate.update("DELETE FROM stock_movements WHERE inventory_id IN (" + ids + ")");
+        jdbcTemplate.update("DELETE FROM medication_schedule WHERE request_id IN (?, ?)",
+                requestA.getRequestId(), requestB.getRequestId());
+        jdbcTemplate.update("DELETE FROM medication_requests WHERE request_id IN (?, ?)",
+                requestA.getRequestId(), requestB.getRequestId());
+        jdbcTemplate.update("DELETE FROM inventory WHERE inventory_id IN (" + ids + ")");
+        jdbcTemplate.update("DELETE FROM medical_items WHERE item_id IN (?, ?)",
+                inventoryA.getMedicalItem().getItemId(), inventoryB.getMedicalItem().getItemId());
+        jdbcTemplate.update("DELETE FROM students WHERE student_id = ?", student.getStudentId());
+        jdbcTemplate.update("DELETE FROM users WHERE user_id = ?", nurse.getUserId());
+        jdbcTemplate.update("DELETE FROM roles WHERE role_id = ?", nurse.getRole().getRoleId());
+    }
+
+    @Test
+    void crossInventoryUpdatesNeitherDeadlockNorOversell() throws Exception {
+        Long scheduleOnA = scheduleService.create(dose(requestA, 1)).getScheduleId();
+        Long scheduleOnB = scheduleService.create(dose(requestB, 1)).getScheduleId();
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        CountDownLatch start = new CountDownLatch(1);
+        ConcurrentLinkedQueue<Throwable> unexpected = new ConcurrentLinkedQueue<>();
+        List<Future<?>> tasks = List.of(
+                // A -> B -> A ... và B -> A -> B ... chạy song song
+                pool.submit(worker(start, unexpected, i -> scheduleService.update(scheduleOnA,
+                        dose(i % 2 == 0 ? requestB : requestA, 1 + i % 3)))),
+                pool.submit(worker(start, unexpected, i -> scheduleService.update(scheduleOnB,
+                        dose(i % 2 == 0 ? requestA : requestB, 1 + i % 3)))),
+                pool.submit(worker(start, unexpected, i -> scheduleService.create(dose(requestA, 3)))),
+                pool.submit(worker(start, unexpected, i -> scheduleService.create(dose(requestB, 3)))));
+
+        start.countDown();
+        for (Future<?> task : tasks) task.get(2, TimeUnit.MINUTES);
+        pool.shutdown();
+
+        assertThat(unexpected).isEmpty();
+        for (Inventory inventory : List.of(inventoryA, inventoryB)) {
+            int remaining = inventoryRepository.findTotalQuantity(inventory.getInventoryId());
+            assertThat(remaining).isBetween(0, INITIAL_STOCK);
+            assertThat(INITIAL_STOCK - remaining).isEqualTo(dispensedFrom(inventory));
+        }
+        for (MedicationRequest request : List.of(requestA, requestB)) {
+            int remaining = jdbcTemplate.queryForObject(
+                    "SELECT total_quantity FROM medication_requests WHERE request_id = ?", Integer.class, request.getRequestId());
+            assertThat(remaining).isGreaterThanOrEqualTo(0);
+            assertThat(REQUESTED - remaining).isEqualTo(dispensedFor(request));
+        }
+    }
+
+    private interface Step {
+        void run(int round);
+    }
+
+    private Runnable worker(CountDownLatch start, ConcurrentLinkedQueue<Throwable> unexpected, Step step) {
+        return () -> {
+            authenticate();
+            try {
+                start.await();
+                for (int i = 0; i < ROUNDS; i++) {
+                    try {
+                        step.run(i);
+                    } catch (RuntimeException e) {
+                        // Hết hàng là kết quả hợp lệ; deadlock/lock timeout thì không
+                        if (!BUSINESS_ERRORS.contains(e.getMessage())) unexpected.add(e);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                SecurityContextHolder.clearContext();
+            }
+        };
+    }
+
+    private void authenticate() {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(nurse.getEmail(), null, List.of()));
+    }
+
+    private int dispensedFrom(Inventory inventory) {
+        return jdbcTemplate.queryForObject("SELECT COALESCE(SUM(s.dispensed_quantity), 0) FROM medication_schedule s " +
+                "JOIN medication_requests r ON r.request_id = s.request_id WHERE r.inventory_id = ?",
+                Integer.class, inventory.getInventoryId());
+    }
+
+    private int dispensedFor(MedicationRequest request) {
+        return jdbcTemplate.queryForObject("SELECT COALESCE(SUM(dispensed_quantity), 0) FROM medication_schedule " +
+                "WHERE request_id = ?", Integer.class, request.getRequestId());
+    }
+
+    private MedicationScheduleRequest dose(MedicationRequest request, int quantity) {
+        MedicationScheduleRequest dose = new MedicationScheduleRequest();
+        dose.setRequestId(request.getRequestId());
+        dose.setScheduledDate(LocalDate.now());
+        dose.setScheduledTime(LocalTime.of(8, 0));
+        dose.setDispensedQuantity(quantity);
+        return dose;
+    }
+
+    private Inventory inventory(String name) {
+        MedicalItem item = medicalItemRepository.save(MedicalItem.builder().itemName(name).unit("viên").build());
+        return inventoryRepository.save(Inventory.builder()
+                .medicalItem(item)
+                .totalQuantity(INITIAL_STOCK)
+                .updatedAt(LocalDateTime.now())
+                .build());
+    }
+
+    private MedicationRequest request(Inventory inventory) {
+        MedicationRequest request = new MedicationRequest();
+        request.setStudent(student);
+        request.setRequestedBy(nurse);
+        request.setMedicationName(inventory.getMedicalItem().getItemName());
+        request.setInventory(inventory);
+        request.setTotalQuantity(REQUESTED);
+        request.setConfirmationStatus(ConfirmationStatus.confirmed);
+        return requestRepository.save(request);
+    }
+}
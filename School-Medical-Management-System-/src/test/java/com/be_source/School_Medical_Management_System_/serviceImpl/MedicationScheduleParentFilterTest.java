@@ -0,0 +1,158 @@
+package com.be_source.School_Medical_Management_System_.serviceImpl;
+
+import com.be_source.School_Medical_Management_System_.PostgresIntegrationTest;
+import com.be_source.School_Medical_Management_System_.response.CursorPageResponse;
+import com.be_source.School_Medical_Management_System_.response.MedicationScheduleResponse;
+import com.be_source.School_Medical_Management_System_.service.MedicationScheduleService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.transaction.AfterTransaction;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Lịch uống thuốc của phụ huynh lọc trên DB giữa 20k học sinh / 100k lịch của phụ huynh khác:
+ * chỉ trả đúng lịch của các con, lọc ngày và keyset đúng, plan đi qua index chứ không quét cả bảng.
+ * Seed bằng generate_series trong một transaction (rollback khi xong).
+ */
+@Transactional
+class MedicationScheduleParentFilterTest extends PostgresIntegrationTest {
+
+    private static final int OTHER_PARENTS = 5_000;
+    private static final int CHILDREN_PER_PARENT = 4;
+    private static final int SCHEDULES_PER_CHILD = 5;
+    private static final LocalDate FIRST_DAY = LocalDate.of(2030, 5, 1);
+
+    // Tương đương SQL Hibernate sinh cho MedicationScheduleRepository.findForParent (không lọc ngày, trang đầu)
+    private static final String PARENT_SCHEDULE_SQL = "SELECT m.schedule_id, s.student_id, s.full_name, m.request_id, " +
+            "m.scheduled_date, m.scheduled_time, m.notes, a.full_name, m.created_at, m.dispensed_quantity " +
+            "FROM medication_schedule m JOIN students s ON s.student_id = m.student_id " +
+            "JOIN users a ON a.user_id = m.administered_by WHERE s.parent_id = %d " +
+            "AND (m.created_at, m.schedule_id) < (TIMESTAMP '9999-12-31 00:00', 9223372036854775807) " +
+            "ORDER BY m.created_at DESC, m.schedule_id DESC LIMIT 21";
+
+    @Autowired
+    private MedicationScheduleService scheduleService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long parentId;
+    private List<Long> children;
+
+    @BeforeEach
+    void seed() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        Long parentRole = role("Parent-" + suffix);
+        Long nurseId = user(role("Nurse-" + suffix), "nurse-" + suffix);
+        parentId = user(parentRole, "parent-" + suffix);
+
+        jdbcTemplate.update("INSERT INTO users (email, username, full_name, role_id, created_at) " +
+                "SELECT 'other-' || ? || '-' || g || '@example.com', 'other-' || ? || '-' || g, 'Other ' || g, ?, " +
+                "LOCALTIMESTAMP FROM generate_series(1, ?) g", suffix, suffix, parentRole, OTHER_PARENTS);
+        jdbcTemplate.update("INSERT INTO students (full_name, class_name, parent_id, confirmation_status) " +
+                "SELECT 'Student ' || u.user_id || '-' || g, '2B', u.user_id, 'confirmed' " +
+                "FROM users u CROSS JOIN generate_series(1, ?) g WHERE u.role_id = ?", CHILDREN_PER_PARENT, parentRole);
+        children = jdbcTemplate.queryForList("SELECT student_id FROM students WHERE parent_id = ?", Long.class, parentId);
+
+        Long requestId = jdbcTemplate.queryForObject("INSERT INTO medication_requests (student_id, requested_by, " +
+                "medication_name, total_quantity, confirmation_status, created_at) " +
+                "VALUES (?, ?, 'Paracetamol', 1000000, 'confirmed', LOCALTIMESTAMP) RETURNING request_id",
+                Long.class, children.get(0), parentId);
+        // created_at lặp lại giữa các con để keyset phải phân định bằng schedule_id
+        jdbcTemplate.update("INSERT INTO medication_schedule (request_id, student_id, administered_by, scheduled_date, " +
+                "scheduled_time, created_at, dispensed_quantity) " +
+                "SELECT ?, s.student_id, ?, ?::date + g, TIME '08:00', ?::date + g + TIME '09:00', 1 " +
+                "FROM students s JOIN users u ON u.user_id = s.parent_id CROSS JOIN generate_series(0, ?) g " +
+                "WHERE u.role_id = ?", requestId, nurseId, FIRST_DAY, FIRST_DAY, SCHEDULES_PER_CHILD - 1, parentRole);
+        jdbcTemplate.execute("ANALYZE students");
+        jdbcTemplate.execute("ANALYZE medication_schedule");
+
+        String email = jdbcTemplate.queryForObject("SELECT email FROM users WHERE user_id = ?", String.class, parentId);
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(email, null, List.of()));
+    }
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    // Rollback không thu nhỏ index; dựng lại để các plan test chạy sau trên DB dùng lại không bị lệch
+    @AfterTransaction
+    void compactIndexes() {
+        jdbcTemplate.execute("REINDEX TABLE medication_schedule");
+        jdbcTemplate.execute("REINDEX TABLE students");
+        jdbcTemplate.execute("REINDEX TABLE users");
+    }
+
+    @Test
+    void listReturnsOnlyTheParentsSchedulesNewestFirst() {
+        List<MedicationScheduleResponse> schedules = scheduleService.getForCurrentParentStudents();
+
+        assertThat(schedules).hasSize(CHILDREN_PER_PARENT * SCHEDULES_PER_CHILD);
+        assertThat(schedules).extracting(MedicationScheduleResponse::getStudentId).allMatch(children::contains);
+        assertThat(schedules).isSortedAccordingTo(Comparator
+                .comparing(MedicationScheduleResponse::getCreatedAt)
+                .thenComparing(MedicationScheduleResponse::getScheduleId).reversed());
+    }
+
+    @Test
+    void cursorPagesCoverTheDateRangeExactlyOnce() {
+        LocalDate from = FIRST_DAY.plusDays(1);
+        LocalDate to = FIRST_DAY.plusDays(3);
+
+        List<MedicationScheduleResponse> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPageResponse<MedicationScheduleResponse> page =
+                    scheduleService.getForCurrentParentStudents(from, to, cursor, 5);
+            seen.addAll(page.getContent());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertThat(seen).hasSize(CHILDREN_PER_PARENT * 3);
+        assertThat(seen).extracting(MedicationScheduleResponse::getScheduleId).doesNotHaveDuplicates();
+        assertThat(seen).extracting(MedicationScheduleResponse::getStudentId).allMatch(children::contains);
+        assertThat(seen).extracting(MedicationScheduleResponse::getScheduledDate).allMatch(d -> !d.isBefore(from) && !d.isAfter(to));
+    }
+
+    @Test
+    void openRangeAndOneSidedRangesAreHandled() {
+        assertThat(scheduleService.getForCurrentParentStudents(null, null, null, 100).getContent())
+                .hasSize(CHILDREN_PER_PARENT * SCHEDULES_PER_CHILD);
+        assertThat(scheduleService.getForCurrentParentStudents(FIRST_DAY.plusDays(4), null, null, 100).getContent())
+                .hasSize(CHILDREN_PER_PARENT);
+        assertThat(scheduleService.getForCurrentParentStudents(null, FIRST_DAY, null, 100).getContent())
+                .hasSize(CHILDREN_PER_PARENT);
+    }
+
+    @Test
+    void planReachesTheParentsRowsThroughIndexes() {
+        String plan = String.join("\n", jdbcTemplate.queryForList(
+                "EXPLAIN " + PARENT_SCHEDULE_SQL.formatted(parentId), String.class));
+
+        assertThat(plan).contains("idx_students_parent", "idx_medication_schedule_student")
+                .doesNotContain("Seq Scan on students", "Seq Scan on medication_schedule");
+    }
+
+    private Long role(String name) {
+        return jdbcTemplate.queryForObject("INSERT INTO roles (role_name) VALUES (?) RETURNING role_id", Long.class, name);
+    }
+
+    private Long user(Long roleId, String name) {
+        return jdbcTemplate.queryForObject("INSERT INTO users (email, username, full_name, role_id, created_at) " +
+                "VALUES (?, ?, ?, ?, LOCALTIMESTAMP) RETURNING user_id", Long.class,
+                name + "@example.com", name, name, roleId);
+    }
+}
@@ -0,0 +1,174 @@
+package com.be_source.School_Medical_Management_System_.serviceImpl;
+
+import com.be_source.School_Medical_Management_System_.model.Notification;
+import com.be_source.School_Medical_Management_System_.model.User;
+import com.be_source.School_Medical_Management_System_.repository.NotificationRepository;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+/**
+ * Kết nối SSE đi qua MockMvc để emitter được gắn với request async thật: các callback hoàn tất / timeout / lỗi
+ * của servlet container chạy như khi chạy thật.
+ */
+class NotificationPushHubTest {
+
+    private static final Long USER_ID = 7L;
+
+    private NotificationPushHub hub;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        hub = new NotificationPushHub(mock(NotificationRepository.class));
+        ReflectionTestUtils.setField(hub, "timeoutMs", 60_000L);
+        mockMvc = MockMvcBuilders.standaloneSetup(new StreamController(hub)).build();
+    }
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void subscribeRegistersOneEmitterPerConnection() throws Exception {
+        connect();
+        connect();
+
+        assertThat(hub.connectionCount()).isEqualTo(2);
+    }
+
+    @Test
+    void completedConnectionIsRemoved() throws Exception {
+        MvcResult connection = connect();
+
+        asyncContext(connection).complete();
+
+        assertThat(hub.connectionCount()).isZero();
+    }
+
+    @Test
+    void timedOutConnectionIsRemoved() throws Exception {
+        MvcResult connection = connect();
+        MockAsyncContext context = asyncContext(connection);
+
+        for (AsyncListener listener : context.getListeners()) listener.onTimeout(new AsyncEvent(context));
+
+        assertThat(hub.connectionCount()).isZero();
+    }
+
+    @Test
+    void failedConnectionIsRemoved() throws Exception {
+        MvcResult connection = connect();
+        MockAsyncContext context = asyncContext(connection);
+
+        for (AsyncListener listener : context.getListeners()) {
+            listener.onError(new AsyncEvent(context, new IOException("Broken pipe")));
+        }
+
+        assertThat(hub.connectionCount()).isZero();
+    }
+
+    @Test
+    void publishOutsideATransactionIsSentImmediately() throws Exception {
+        MvcResult connection = connect();
+
+        hub.publish(notification(101L));
+
+        assertThat(connection.getResponse().getContentAsString()).contains("id:101", "event:notification");
+    }
+
+    @Test
+    void publishInsideATransactionWaitsForCommit() throws Exception {
+        MvcResult connection = connect();
+        TransactionSynchronizationManager.initSynchronization();
+
+        hub.publish(notification(102L));
+        assertThat(connection.getResponse().getContentAsString()).doesNotContain("id:102");
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+
+        assertThat(connection.getResponse().getContentAsString()).contains("id:102");
+    }
+
+    @Test
+    void publishInsideARolledBackTransactionIsNeverSent() throws Exception {
+        MvcResult connection = connect();
+        TransactionSynchronizationManager.initSynchronization();
+
+        hub.publish(notification(103L));
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertThat(connection.getResponse().getContentAsString()).doesNotContain("id:103");
+    }
+
+    @Test
+    void publishOnlyReachesTheRecipient() throws Exception {
+        MvcResult connection = connect();
+
+        Notification other = notification(104L);
+        other.getUser().setUserId(USER_ID + 1);
+        hub.publish(other);
+
+        assertThat(connection.getResponse().getContentAsString()).doesNotContain("id:104");
+    }
+
+    private MvcResult connect() throws Exception {
+        return mockMvc.perform(get("/stream")).andExpect(request().asyncStarted()).andReturn();
+    }
+
+    private static MockAsyncContext asyncContext(MvcResult connection) {
+        return (MockAsyncContext) connection.getRequest().getAsyncContext();
+    }
+
+    private static Notification notification(Long id) {
+        User recipient = new User();
+        recipient.setUserId(USER_ID);
+        Notification notification = new Notification();
+        notification.setNotificationId(id);
+        notification.setUser(recipient);
+        notification.setTitle("Lịch uống thuốc");
+        notification.setContent("Nội dung");
+        notification.setNotificationType("CUSTOM_NOTIFICATION");
+        return notification;
+    }
+
+    @RestController
+    static class StreamController {
+
+        private final NotificationPushHub hub;
+
+        StreamController(NotificationPushHub hub) {
+            this.hub = hub;
+        }
+
+        @GetMapping("/stream")
+        SseEmitter stream() {
+            return hub.subscribe(USER_ID, null);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.be_source.School_Medical_Management_System_.serviceImpl;
+
+import com.be_source.School_Medical_Management_System_.PostgresIntegrationTest;
+import com.be_source.School_Medical_Management_System_.model.Students;
+import com.be_source.School_Medical_Management_System_.repository.StudentRepository;
+import com.be_source.School_Medical_Management_System_.response.StudentResponse;
+import com.be_source.School_Medical_Management_System_.service.StudentService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tìm học sinh qua StudentRepository.search (LIKE + pg_trgm <% / word_similarity) trên PostgreSQL thật.
+ * Mỗi test dùng một từ hiếm riêng để không khớp với dữ liệu khác trong DB; transaction rollback khi xong.
+ */
+@Transactional
+class StudentSearchTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private StudentService studentService;
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Test
+    void accentedAndUnaccentedKeywordsFindTheSameStudent() {
+        Long id = student("Nguyễn Thị Xylomênà", "4A", null);
+
+        assertThat(ids(search("Xylomênà"))).containsExactly(id);
+        assertThat(ids(search("xylomena"))).containsExactly(id);
+        assertThat(ids(search("NGUYEN THI XYLOMENA"))).containsExactly(id);
+    }
+
+    @Test
+    void percentAndUnderscoreAreMatchedLiterally() {
+        Long percent = student("Zorblaxine", "Nhóm 50%", null);
+        Long underscore = student("Zorblaxine", "A_1", null);
+        Long decoy = student("Zorblaxine", "A31", null);
+
+        assertThat(ids(search("50%"))).contains(percent).doesNotContain(underscore, decoy);
+        assertThat(ids(search("a_1"))).contains(underscore).doesNotContain(percent, decoy);
+        assertThat(ids(search("%"))).contains(percent).doesNotContain(underscore, decoy);
+        assertThat(ids(search("_"))).contains(underscore).doesNotContain(percent, decoy);
+    }
+
+    @Test
+    void prefixMatchRanksAboveSubstringAndFuzzyMatches() {
+        // Chèn theo thứ tự ngược với kết quả mong đợi để thứ tự không đến từ student_id
+        Long substring = student("Anh Velmorax", "2B", null);
+        Long fuzzy = student("Binh Velmoraz", "2B", null);
+        Long prefix = student("Velmorax Chi", "2B", null);
+
+        assertThat(ids(search("velmorax"))).containsExactly(prefix, substring, fuzzy);
+    }
+
+    @Test
+    void studentCodeMatchesCaseInsensitivelyAndExactCodeRanksFirst() {
+        Long byName = student("Hs Qzcode Trung", "1C", null);
+        Long byCode = student("Lê Văn Tám", "1C", "HS-QZCODE");
+
+        // Tên gần giống mã vẫn khớp mờ nhưng xếp sau mã trùng khớp
+        assertThat(ids(search("hs-qzcode"))).containsExactly(byCode, byName);
+        assertThat(ids(search("QZCODE"))).contains(byCode);
+    }
+
+    @Test
+    void countQueryReportsAllMatchesWhilePageIsLimited() {
+        student("Trombolixa An", "3C", null);
+        student("Trombolixa Bao", "3C", null);
+        student("Trombolixa Cuong", "3C", null);
+
+        Page<StudentResponse> first = studentService.searchStudents("trombolixa", PageRequest.of(0, 2));
+        Page<StudentResponse> second = studentService.searchStudents("trombolixa", PageRequest.of(1, 2));
+
+        assertThat(first.getContent()).hasSize(2);
+        assertThat(second.getContent()).hasSize(1);
+        assertThat(first.getTotalElements()).isEqualTo(3);
+        assertThat(first.getTotalPages()).isEqualTo(2);
+    }
+
+    @Test
+    void blankKeywordReturnsEmptyPage() {
+        assertThat(studentService.searchStudents("   ", PageRequest.of(0, 20))).isEmpty();
+    }
+
+    private Page<StudentResponse> search(String keyword) {
+        return studentService.searchStudents(keyword, PageRequest.of(0, 50));
+    }
+
+    private static List<Long> ids(Page<StudentResponse> page) {
+        return page.getContent().stream().map(StudentResponse::getStudentId).toList();
+    }
+
+    private Long student(String name, String className, String code) {
+        Students student = new Students();
+        student.setFullName(name);
+        student.setClassName(className);
+        student.setStudentCode(code);
+        return studentRepository.saveAndFlush(student).getStudentId();
+    }
+}
@@ -0,0 +1,184 @@
+package com.be_source.School_Medical_Management_System_.serviceImpl;
+
+import com.be_source.School_Medical_Management_System_.PostgresIntegrationTest;
+import com.be_source.School_Medical_Management_System_.model.Health_Info;
+import com.be_source.School_Medical_Management_System_.model.Role;
+import com.be_source.School_Medical_Management_System_.model.Students;
+import com.be_source.School_Medical_Management_System_.model.User;
+import com.be_source.School_Medical_Management_System_.repository.RoleRepository;
+import com.be_source.School_Medical_Management_System_.repository.StudentRepository;
+import com.be_source.School_Medical_Management_System_.repository.UserRepository;
+import com.be_source.School_Medical_Management_System_.response.StudentResponse;
+import com.be_source.School_Medical_Management_System_.scheduler.NotificationEmailScheduler;
+import com.be_source.School_Medical_Management_System_.service.StudentService;
+import com.be_source.School_Medical_Management_System_.service.TokenRevocationService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Danh sách học sinh kèm health info: số câu SQL không được tăng theo số học sinh (trước đây mỗi học sinh
+ * nạp health info và phụ huynh bằng query riêng). Đếm bằng Hibernate statistics trên PostgreSQL thật;
+ * statistics tính cho cả session factory nên các job chạy định kỳ có truy vấn DB được thay bằng mock.
+ */
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class StudentServiceQueryCountTest extends PostgresIntegrationTest {
+
+    private static final int SMALL = 3;
+    private static final int LARGE = 60;
+
+    @MockitoBean
+    private NotificationEmailScheduler emailScheduler;
+    @MockitoBean
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private StudentService studentService;
+    @Autowired
+    private RoleRepository roleRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private StudentRepository studentRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Statistics statistics;
+    private final List<User> parents = new ArrayList<>();
+
+    @BeforeEach
+    void enableStatistics() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        SecurityContextHolder.clearContext();
+        for (User parent : parents) {
+            jdbcTemplate.update("DELETE FROM health_info WHERE student_id IN " +
+                    "(SELECT student_id FROM students WHERE parent_id = ?)", parent.getUserId());
+            jdbcTemplate.update("DELETE FROM students WHERE parent_id = ?", parent.getUserId());
+            jdbcTemplate.update("DELETE FROM users WHERE user_id = ?", parent.getUserId());
+            jdbcTemplate.update("DELETE FROM roles WHERE role_id = ?", parent.getRole().getRoleId());
+        }
+        parents.clear();
+    }
+
+    @Test
+    void getAllStudentsUsesAConstantNumberOfStatements() {
+        seed(SMALL);
+        seed(LARGE);
+        PageRequest page = PageRequest.of(0, LARGE + SMALL, Sort.by(Sort.Direction.DESC, "studentId"));
+
+        long statements = countStatements(() -> {
+            List<StudentResponse> students = studentService.getAllStudents(page).getContent();
+            assertThat(students).hasSize(LARGE + SMALL);
+            assertThat(students).allSatisfy(s -> assertThat(s.getHealthInfoList()).hasSize(2));
+        });
+        long fewerStatements = countStatements(() ->
+                assertThat(studentService.getAllStudents(PageRequest.of(0, SMALL, page.getSort())).getContent())
+                        .hasSize(SMALL));
+
+        assertThat(statements).isEqualTo(fewerStatements).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    void getStudentsByCurrentParentUsesAConstantNumberOfStatements() {
+        Cohort small = seed(SMALL);
+        Cohort large = seed(LARGE);
+
+        long smallStatements = countStatements(() -> {
+            authenticate(small.parent);
+            assertThat(studentService.getStudentsByCurrentParent()).hasSize(SMALL);
+        });
+        long largeStatements = countStatements(() -> {
+            authenticate(large.parent);
+            List<StudentResponse> students = studentService.getStudentsByCurrentParent();
+            assertThat(students).hasSize(LARGE);
+            assertThat(students).allSatisfy(s -> assertThat(s.getHealthInfoList()).hasSize(2));
+        });
+
+        assertThat(largeStatements).isEqualTo(smallStatements);
+    }
+
+    @Test
+    void searchStudentsByCodeUsesAConstantNumberOfStatements() {
+        Cohort small = seed(SMALL);
+        Cohort large = seed(LARGE);
+
+        long smallStatements = countStatements(() ->
+                assertThat(studentService.searchStudentsByCode(small.codePrefix)).hasSize(SMALL));
+        long largeStatements = countStatements(() -> {
+            List<StudentResponse> students = studentService.searchStudentsByCode(large.codePrefix);
+            assertThat(students).hasSize(LARGE);
+            assertThat(students).allSatisfy(s -> assertThat(s.getHealthInfoList()).hasSize(2));
+        });
+
+        assertThat(largeStatements).isEqualTo(smallStatements).isLessThanOrEqualTo(2);
+    }
+
+    private long countStatements(Runnable action) {
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private record Cohort(User parent, String codePrefix) {
+    }
+
+    private Cohort seed(int size) {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        Role role = roleRepository.save(new Role(null, "Parent-" + suffix));
+        User parent = new User();
+        parent.setUsername("parent-" + suffix);
+        parent.setEmail("parent-" + suffix + "@example.com");
+        parent.setFullName("Parent " + suffix);
+        parent.setRole(role);
+        parent = userRepository.save(parent);
+        parents.add(parent);
+
+        List<Students> students = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            Students student = new Students();
+            student.setFullName("Student " + i);
+            student.setClassName("3A");
+            student.setStudentCode("QC" + suffix + "-" + i);
+            student.setParent(parent);
+            student.setHealthInfoList(new ArrayList<>(List.of(healthInfo(student, "Hen suyễn"), healthInfo(student, "Dị ứng"))));
+            students.add(student);
+        }
+        studentRepository.saveAll(students);
+        return new Cohort(parent, "QC" + suffix);
+    }
+
+    private static Health_Info healthInfo(Students student, String condition) {
+        Health_Info info = new Health_Info();
+        info.setStudent(student);
+        info.setMedicalConditions(condition);
+        return info;
+    }
+
+    private static void authenticate(User user) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user.getEmail(), null, List.of()));
+    }
+}
@@ -0,0 +1,67 @@
+package com.be_source.School_Medical_Management_System_.serviceImpl;
+
+import com.be_source.School_Medical_Management_System_.model.TokenRevocation;
+import com.be_source.School_Medical_Management_System_.repository.TokenRevocationRepository;
+import com.be_source.School_Medical_Management_System_.security.JwtUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class TokenRevocationServiceImplTest {
+
+    private TokenRevocationRepository repository;
+    private TokenRevocationServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(TokenRevocationRepository.class);
+        service = new TokenRevocationServiceImpl(repository);
+    }
+
+    @Test
+    void revokesTokensIssuedBeforeRevocationAndPersistsIt() {
+        Date issuedBefore = new Date(System.currentTimeMillis() - 60_000);
+        service.revokeUser("parent@example.com");
+        Date issuedAfter = new Date(System.currentTimeMillis() + 2_000);
+
+        assertThat(service.isRevoked("parent@example.com", issuedBefore)).isTrue();
+        assertThat(service.isRevoked("parent@example.com", issuedAfter)).isFalse();
+        assertThat(service.isRevoked("other@example.com", issuedBefore)).isFalse();
+        verify(repository).upsert(eq("parent@example.com"), any(LocalDateTime.class), any(LocalDateTime.class));
+    }
+
+    @Test
+    void revocationSurvivesRestartThroughRefresh() {
+        LocalDateTime revoked = LocalDateTime.now().minusMinutes(5);
+        when(repository.findByExpiresAtAfter(any(LocalDateTime.class))).thenReturn(List.of(
+                new TokenRevocation("deleted@example.com", revoked, revoked.plusNanos(JwtUtil.TOKEN_VALIDITY_MS * 1_000_000))));
+
+        // Instance mới (sau restart) chưa có gì trong bộ nhớ cho tới khi nạp từ DB
+        TokenRevocationServiceImpl restarted = new TokenRevocationServiceImpl(repository);
+        Date issuedBeforeRevocation = new Date(System.currentTimeMillis() - 10 * 60_000);
+        assertThat(restarted.isRevoked("deleted@example.com", issuedBeforeRevocation)).isFalse();
+
+        restarted.refresh();
+        assertThat(restarted.isRevoked("deleted@example.com", issuedBeforeRevocation)).isTrue();
+    }
+
+    @Test
+    void refreshDoesNotRollBackANewerLocalRevocation() {
+        service.revokeUser("nurse@example.com");
+        LocalDateTime older = LocalDateTime.now().minusHours(1);
+        when(repository.findByExpiresAtAfter(any(LocalDateTime.class))).thenReturn(List.of(
+                new TokenRevocation("nurse@example.com", older, older.plusHours(10))));
+
+        service.refresh();
+
+        assertThat(service.isRevoked("nurse@example.com", new Date(System.currentTimeMillis() - 1_000))).isTrue();
+    }
+}
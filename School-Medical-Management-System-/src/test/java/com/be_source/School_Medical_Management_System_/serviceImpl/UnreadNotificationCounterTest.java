@@ -0,0 +1,101 @@
+package com.be_source.School_Medical_Management_System_.serviceImpl;
+
+import com.be_source.School_Medical_Management_System_.repository.NotificationRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UnreadNotificationCounterTest {
+
+    private NotificationRepository repository;
+    private UnreadNotificationCounter counter;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(NotificationRepository.class);
+        counter = new UnreadNotificationCounter(repository);
+    }
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void rebuildReplacesStaleCountsAndDropsUsersWithNothingUnread() {
+        counter.add(1L, 9);
+        counter.add(2L, 7);
+        when(repository.countUnreadGroupByUser()).thenReturn(rows(1L, 3L));
+
+        counter.rebuild();
+
+        assertThat(counter.get(1L)).isEqualTo(3);
+        assertThat(counter.get(2L)).isZero();
+    }
+
+    @Test
+    void deltasCommittedWhileTheSnapshotIsReadAreReplayed() {
+        counter.add(1L, 1);
+        when(repository.countUnreadGroupByUser()).thenAnswer(invocation -> {
+            // Commit của request khác rơi vào giữa lúc đang đọc DB (snapshot không thấy các dòng này)
+            counter.add(1L, 2);
+            counter.increment(List.of(3L));
+            return rows(1L, 5L);
+        });
+
+        counter.rebuild();
+
+        assertThat(counter.get(1L)).isEqualTo(7);
+        // User chỉ xuất hiện sau snapshot không bị xóa khỏi map
+        assertThat(counter.get(3L)).isEqualTo(1);
+    }
+
+    @Test
+    void deltasAfterRebuildGoToTheNewCounts() {
+        when(repository.countUnreadGroupByUser()).thenReturn(rows(1L, 4L));
+        counter.rebuild();
+
+        counter.add(1L, -1);
+        counter.increment(List.of(1L, 5L));
+
+        assertThat(counter.get(1L)).isEqualTo(4);
+        assertThat(counter.get(5L)).isEqualTo(1);
+    }
+
+    @Test
+    void failedSnapshotKeepsTheCurrentCounts() {
+        counter.add(1L, 2);
+        when(repository.countUnreadGroupByUser()).thenThrow(new IllegalStateException("connection refused"));
+
+        assertThatThrownBy(counter::rebuild).isInstanceOf(IllegalStateException.class);
+        counter.add(1L, 1);
+
+        assertThat(counter.get(1L)).isEqualTo(3);
+    }
+
+    @Test
+    void deltaInsideATransactionWaitsForCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        counter.add(1L, 2);
+        assertThat(counter.get(1L)).isZero();
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertThat(counter.get(1L)).isEqualTo(2);
+    }
+
+    private static List<Object[]> rows(Object... userIdAndCount) {
+        return List.<Object[]>of(userIdAndCount);
+    }
+}
@@ -0,0 +1,40 @@
+package com.be_source.School_Medical_Management_System_.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.text.Normalizer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NameNormalizerTest {
+
+    @Test
+    void stripsVietnameseAccentsIncludingDStroke() {
+        assertThat(NameNormalizer.normalize("Thuốc ho Bổ Phế")).isEqualTo("thuoc ho bo phe");
+        assertThat(NameNormalizer.normalize("Đường glucose")).isEqualTo("duong glucose");
+        assertThat(NameNormalizer.normalize("Nguyễn Thị Ánh")).isEqualTo("nguyen thi anh");
+    }
+
+    @Test
+    void ignoresCaseAndExtraWhitespace() {
+        assertThat(NameNormalizer.normalize("  Paracetamol  500mg"))
+                .isEqualTo(NameNormalizer.normalize("paracetamol 500MG"))
+                .isEqualTo("paracetamol 500mg");
+        assertThat(NameNormalizer.normalize("Vitamin\tC\n1000")).isEqualTo("vitamin c 1000");
+    }
+
+    @Test
+    void composedAndDecomposedInputGiveTheSameKey() {
+        String composed = "Bổ Phế";
+        String decomposed = Normalizer.normalize(composed, Normalizer.Form.NFD);
+
+        assertThat(NameNormalizer.normalize(decomposed)).isEqualTo(NameNormalizer.normalize(composed));
+    }
+
+    @Test
+    void blankNamesHaveNoKey() {
+        assertThat(NameNormalizer.normalize(null)).isNull();
+        assertThat(NameNormalizer.normalize("")).isNull();
+        assertThat(NameNormalizer.normalize("   ")).isNull();
+    }
+}